@@ -0,0 +1,151 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import io.github.uchagani.allure.playwright.AllurePlaywrightContext;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.TestResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@code sendMessage} call for every protocol method the library maps to a step, and for two that it does
+ * not, on the pass and on the fail path.
+ * <p>
+ * Each thread reports to its own test case, which is written and replaced every {@value #stepsPerTest} calls, so the
+ * cost of finishing a test is spread over its steps as in a real run. Results are discarded by
+ * {@link NoopResultsWriter}, so step names, which are rendered when a result is written, are not part of the numbers.
+ * Consecutive calls alternate between two parameter sets, so retries of the same {@code expect} are not merged into
+ * one step. {@code plain} weaves nothing and {@code current} weaves the aspects shipped in the library. Use
+ * {@link BenchmarkSuite} to run it with 1 to 32 threads, see README.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class ActionBenchmark {
+    private static final int stepsPerTest = 1000;
+    private static final AllureLifecycle lifecycle = new AllureLifecycle(new NoopResultsWriter());
+
+    @Param({"check", "click", "dblclick", "dragAndDrop", "fill", "focus", "hover", "press", "selectOption",
+            "setInputFiles", "tap", "type", "uncheck", "goBack", "goForward", "close", "goto", "expect", "fetch",
+            "waitForEventInfo", "evaluateExpression"})
+    public String method;
+
+    @Param({"pass", "fail"})
+    public String outcome;
+
+    private StubChannelOwner channel;
+    private JsonObject[] params;
+    private int calls;
+    private String testUuid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AllurePlaywrightContext.setLifecycle(lifecycle);
+        channel = StubChannelOwner.create(outcome.equals("fail"));
+        params = new JsonObject[]{params(method, "#first"), params(method, "#second")};
+        startTest();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stopTest();
+        AllurePlaywrightContext.clearLifecycle();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.aspectj.weaver.loadtime.configuration=META-INF/aop-none.xml")
+    public Object plain() {
+        return send();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.aspectj.weaver.loadtime.configuration=META-INF/aop.xml")
+    public Object current() {
+        return send();
+    }
+
+    private Object send() {
+        int call = calls++;
+        if (call == stepsPerTest) {
+            stopTest();
+            startTest();
+            calls = 1;
+            call = 0;
+        }
+        try {
+            return channel.send(method, params[call & 1]);
+        } catch (PlaywrightException e) {
+            return e;
+        }
+    }
+
+    private void startTest() {
+        testUuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(testUuid).setName("benchmark"));
+        lifecycle.startTestCase(testUuid);
+    }
+
+    private void stopTest() {
+        lifecycle.stopTestCase(testUuid);
+        lifecycle.writeTestCase(testUuid);
+    }
+
+    /**
+     * Parameters shaped like the ones Playwright sends for the method, so step names can be rendered from them.
+     */
+    static JsonObject params(String method, String selector) {
+        JsonObject params = new JsonObject();
+        switch (method) {
+            case "goBack":
+            case "goForward":
+            case "close":
+                break;
+            case "goto":
+                params.addProperty("url", "https://example.com/" + selector.substring(1));
+                break;
+            case "fetch":
+                params.addProperty("url", "https://example.com/api/" + selector.substring(1));
+                params.addProperty("method", "GET");
+                break;
+            case "dragAndDrop":
+                params.addProperty("source", selector);
+                params.addProperty("target", "#target");
+                break;
+            case "expect":
+                JsonObject expectedText = new JsonObject();
+                expectedText.addProperty("string", "Submit");
+                JsonArray expected = new JsonArray();
+                expected.add(expectedText);
+                params.addProperty("selector", selector);
+                params.addProperty("expression", "to.have.text");
+                params.add("expectedText", expected);
+                params.addProperty("isNot", false);
+                params.addProperty("timeout", 5000);
+                break;
+            case "evaluateExpression":
+                params.addProperty("expression", "() => document.title");
+                params.addProperty("isFunction", true);
+                break;
+            default:
+                params.addProperty("selector", selector);
+                params.addProperty("value", "value");
+                params.addProperty("key", "Enter");
+                params.addProperty("text", "text");
+                JsonObject file = new JsonObject();
+                file.addProperty("name", "file.txt");
+                file.addProperty("mimeType", "text/plain");
+                file.addProperty("buffer", "dGV4dA==");
+                JsonArray files = new JsonArray();
+                files.add(file);
+                params.add("files", files);
+        }
+        return params;
+    }
+}
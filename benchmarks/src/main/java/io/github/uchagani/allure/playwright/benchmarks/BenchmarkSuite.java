@@ -0,0 +1,44 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the benchmarks matching a pattern with each of the given thread counts and the GC profiler, and writes all
+ * results to a single JSON file that can be compared between releases.
+ * <p>
+ * Arguments: {@code [include pattern] [result file] [thread counts]}, by default
+ * {@code ActionBenchmark target/jmh-result.json 1,2,4,8,16,32}. The weaver agent is taken from
+ * {@code target/agent/aspectjweaver.jar}, which {@code mvn package} copies there.
+ */
+public final class BenchmarkSuite {
+    private BenchmarkSuite() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ActionBenchmark.class.getSimpleName();
+        String resultFile = args.length > 1 ? args[1] : "target/jmh-result.json";
+        String threadCounts = args.length > 2 ? args[2] : "1,2,4,8,16,32";
+
+        List<RunResult> results = new ArrayList<>();
+        for (String threads : threadCounts.split(",")) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .jvmArgsPrepend("-javaagent:target/agent/aspectjweaver.jar")
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+        ResultFormatFactory.getInstance(ResultFormatType.JSON, resultFile).writeOut(results);
+    }
+}
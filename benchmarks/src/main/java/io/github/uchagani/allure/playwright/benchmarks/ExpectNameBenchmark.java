@@ -0,0 +1,83 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.github.uchagani.allure.playwright.StepNameRenderer;
+import io.github.uchagani.allure.playwright.StepNameRenderers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step names of {@code expect} calls, the most frequent protocol method of assertion-heavy suites. {@code legacy} is
+ * the 1.1.0 renderer, which finds out whether there is an expected text by catching a {@code NullPointerException};
+ * {@code current} is the renderer shipped in the library. HotSpot stops filling the stack trace of an implicit
+ * exception that is thrown often, so {@code legacyWithStackTraces} shows the legacy cost with that turned off, as on
+ * JVMs started with {@code -XX:-OmitStackTraceInFastThrow} or before the renderer is compiled. Does not need the
+ * weaver agent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpectNameBenchmark {
+    private static final Gson gson = new Gson();
+
+    @Param({"toBeVisible", "toHaveText", "notToBeChecked", "toHaveAttribute"})
+    public String assertion;
+
+    private final StepNameRenderer current = StepNameRenderers.get("expect");
+    private JsonObject params;
+
+    @Setup
+    public void setUp() {
+        params = gson.fromJson(params(assertion).replace('\'', '"'), JsonObject.class);
+    }
+
+    static String params(String assertion) {
+        switch (assertion) {
+            case "toBeVisible":
+                return "{'selector':'#submit','expression':'to.be.visible','isNot':false,'timeout':5000}";
+            case "toHaveText":
+                return "{'selector':'h1','expression':'to.have.text','expectedText':[{'string':'Welcome',"
+                        + "'matchSubstring':false,'normalizeWhiteSpace':true}],'isNot':false,'timeout':5000}";
+            case "notToBeChecked":
+                return "{'selector':'#agree','expression':'to.be.checked','isNot':true,'timeout':5000}";
+            case "toHaveAttribute":
+                return "{'selector':'a.home','expression':'to.have.attribute','expressionArg':'href',"
+                        + "'expectedText':[{'string':'/home'}],'isNot':false,'timeout':5000}";
+            default:
+                throw new IllegalArgumentException("Unknown assertion " + assertion);
+        }
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyName(params);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-XX:-OmitStackTraceInFastThrow")
+    public String legacyWithStackTraces() {
+        return legacyName(params);
+    }
+
+    @Benchmark
+    public String current() {
+        return current.render(params);
+    }
+
+    private static String legacyName(JsonObject params) {
+        String selector = params.get("selector").getAsString();
+        String expression = params.get("expression").getAsString().replace(".", " ");
+        String expectedText = "";
+        try {
+            expectedText = ": " + params.get("expectedText").getAsJsonArray().get(0).getAsJsonObject().get("string").getAsString();
+        } catch (NullPointerException npe) {
+            // ignore because expected text doesn't exist in the params.
+        }
+        return "Expect " + selector + " " + expression + expectedText;
+    }
+}
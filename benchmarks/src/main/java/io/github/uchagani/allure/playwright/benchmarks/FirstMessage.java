@@ -0,0 +1,41 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import io.github.uchagani.allure.playwright.AllurePlaywrightContext;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.TestResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a single tracked message inside a test and prints the JVM uptime in ms, the number of loaded classes and the
+ * number of reported steps. Started in a fresh JVM by {@link StartupComparison}.
+ */
+public final class FirstMessage {
+    private FirstMessage() {
+    }
+
+    public static void main(String[] args) {
+        AllureLifecycle lifecycle = new AllureLifecycle(new NoopResultsWriter());
+        AllurePlaywrightContext.setLifecycle(lifecycle);
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName("startup"));
+        lifecycle.startTestCase(uuid);
+
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", "#button");
+        StubChannelOwner.create().send("click", params);
+
+        AtomicInteger steps = new AtomicInteger();
+        lifecycle.updateTestCase(uuid, result -> steps.set(result.getSteps().size()));
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+
+        System.out.println(ManagementFactory.getRuntimeMXBean().getUptime() + " "
+                + ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() + " "
+                + steps.get());
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import com.google.gson.JsonObject;
+import io.github.uchagani.allure.playwright.StepNameRenderer;
+import io.github.uchagani.allure.playwright.StepNameRenderers;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.*;
+
+import java.util.UUID;
+
+import static io.qameta.allure.util.ResultsUtils.getStatus;
+import static io.qameta.allure.util.ResultsUtils.getStatusDetails;
+
+/**
+ * The 1.1.0 shape of {@code ChannelOwnerAspect}: separate before/after advices that run on every protocol message.
+ * Kept only as the "before" side of {@link SendMessageBenchmark}.
+ */
+@SuppressWarnings("unused")
+@Aspect
+public class LegacyChannelOwnerAspect {
+    private static final InheritableThreadLocal<AllureLifecycle> lifecycle =
+            new InheritableThreadLocal<AllureLifecycle>() {
+                @Override
+                protected AllureLifecycle initialValue() {
+                    return Allure.getLifecycle();
+                }
+            };
+
+    public static AllureLifecycle getLifecycle() {
+        return lifecycle.get();
+    }
+
+    @Pointcut("execution(* com.microsoft.playwright.impl.ChannelOwner.sendMessage(String, com.google.gson.JsonObject))")
+    public void actionMethods() {
+    }
+
+    @Before("actionMethods()")
+    public void beforeActionMethods(final JoinPoint joinPoint) {
+        StepNameRenderer renderer = StepNameRenderers.get((String) joinPoint.getArgs()[0]);
+        if (renderer == null) {
+            return;
+        }
+
+        String uuid = UUID.randomUUID().toString();
+        String stepName = renderer.render((JsonObject) joinPoint.getArgs()[1]);
+        getLifecycle().startStep(uuid, new StepResult().setName(stepName));
+    }
+
+    @AfterThrowing(pointcut = "actionMethods()", throwing = "e")
+    public void stepFailed(final Throwable e) {
+        getLifecycle().updateStep(s -> s.setStatus(getStatus(e).orElse(Status.BROKEN))
+                .setStatusDetails(getStatusDetails(e).orElse(null)));
+        getLifecycle().stopStep();
+    }
+
+    @AfterReturning(pointcut = "actionMethods()")
+    public void stepStop() {
+        getLifecycle().updateStep(s -> s.setStatus(Status.PASSED));
+        getLifecycle().stopStep();
+    }
+}
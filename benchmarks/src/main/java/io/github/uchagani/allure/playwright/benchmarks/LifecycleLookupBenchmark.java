@@ -0,0 +1,74 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import io.github.uchagani.allure.playwright.AllurePlaywrightContext;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving the lifecycle on a fresh thread, as happens for every test on a non-pooled runner. The legacy variant
+ * mirrors the two {@link InheritableThreadLocal}s that each aspect used to keep; both are inherited by the thread
+ * and initialized on first use. Does not need the weaver agent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LifecycleLookupBenchmark {
+    private static final InheritableThreadLocal<AllureLifecycle> legacyChannelOwner = legacyThreadLocal();
+    private static final InheritableThreadLocal<AllureLifecycle> legacyApiResponse = legacyThreadLocal();
+
+    private static InheritableThreadLocal<AllureLifecycle> legacyThreadLocal() {
+        return new InheritableThreadLocal<AllureLifecycle>() {
+            @Override
+            protected AllureLifecycle initialValue() {
+                return Allure.getLifecycle();
+            }
+        };
+    }
+
+    @Setup
+    public void setUp() {
+        // Like a test runner thread that has already reported steps.
+        legacyChannelOwner.get();
+        legacyApiResponse.get();
+        AllurePlaywrightContext.getLifecycle();
+    }
+
+    @Benchmark
+    public void threadChurnLegacy(Blackhole blackhole) throws InterruptedException {
+        runOnNewThread(() -> {
+            blackhole.consume(legacyChannelOwner.get());
+            blackhole.consume(legacyApiResponse.get());
+        });
+    }
+
+    @Benchmark
+    public void threadChurnContext(Blackhole blackhole) throws InterruptedException {
+        runOnNewThread(() -> {
+            blackhole.consume(AllurePlaywrightContext.getLifecycle());
+            blackhole.consume(AllurePlaywrightContext.getLifecycle());
+        });
+    }
+
+    @Benchmark
+    public AllureLifecycle lookupLegacy() {
+        return legacyChannelOwner.get();
+    }
+
+    @Benchmark
+    public AllureLifecycle lookupContext() {
+        return AllurePlaywrightContext.getLifecycle();
+    }
+
+    private static void runOnNewThread(Runnable runnable) throws InterruptedException {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        thread.join();
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+
+import java.io.InputStream;
+
+/**
+ * {@link AllureResultsWriter} that discards everything, so benchmarks measure the adapter and not the disk.
+ */
+public class NoopResultsWriter implements AllureResultsWriter {
+    @Override
+    public void write(TestResult testResult) {
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a {@code sendMessage} call for a protocol method that is not reported as a step.
+ * <p>
+ * Every benchmark runs the same call in its own fork; only the weaver configuration differs:
+ * {@code plain} weaves nothing, {@code legacy} weaves {@link LegacyChannelOwnerAspect} and {@code current} weaves the
+ * aspects shipped in the library. Run with the weaver agent, see README.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SendMessageBenchmark {
+    private StubChannelOwner channel;
+    private JsonObject params;
+
+    @Setup
+    public void setUp() {
+        channel = StubChannelOwner.create();
+        params = new JsonObject();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.aspectj.weaver.loadtime.configuration=META-INF/aop-none.xml")
+    public JsonElement untrackedPlain() {
+        return channel.send("waitForEventInfo", params);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.aspectj.weaver.loadtime.configuration=META-INF/aop-legacy.xml")
+    public JsonElement untrackedLegacy() {
+        return channel.send("waitForEventInfo", params);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorg.aspectj.weaver.loadtime.configuration=META-INF/aop.xml")
+    public JsonElement untrackedCurrent() {
+        return channel.send("waitForEventInfo", params);
+    }
+}
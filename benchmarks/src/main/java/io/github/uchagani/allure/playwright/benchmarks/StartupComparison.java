@@ -0,0 +1,86 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares JVM startup up to the first reported step with no weaving, with load-time weaving through the agent and
+ * with Playwright woven at build time ({@code target/playwright-woven.jar}). Each mode runs {@link FirstMessage} in a
+ * fresh JVM; the medians of the process wall-clock time and of the JVM uptime at the first step are printed.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar io.github.uchagani.allure.playwright.benchmarks.StartupComparison [runs]}
+ */
+public final class StartupComparison {
+    private StartupComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        File benchmarksJar = new File(StartupComparison.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        File target = benchmarksJar.getParentFile();
+        String agent = new File(target, "agent/aspectjweaver.jar").getPath();
+        String woven = new File(target, "playwright-woven.jar").getPath();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String main = FirstMessage.class.getName();
+
+        List<Mode> modes = Arrays.asList(
+                new Mode("no weaving", java, "-cp", benchmarksJar.getPath(), main),
+                new Mode("load-time weaving", java, "-javaagent:" + agent, "-cp", benchmarksJar.getPath(), main),
+                new Mode("build-time weaving", java, "-cp",
+                        woven + File.pathSeparator + agent + File.pathSeparator + benchmarksJar.getPath(), main));
+
+        System.out.printf("%-20s %12s %12s %10s %6s%n", "mode", "wall ms", "uptime ms", "classes", "steps");
+        for (Mode mode : modes) {
+            mode.run(runs);
+        }
+    }
+
+    private static final class Mode {
+        private final String name;
+        private final List<String> command;
+
+        private Mode(String name, String... command) {
+            this.name = name;
+            this.command = Arrays.asList(command);
+        }
+
+        private void run(int runs) throws IOException, InterruptedException {
+            List<Long> wall = new ArrayList<>();
+            List<Long> uptime = new ArrayList<>();
+            String[] last = null;
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+                String result = null;
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.matches("\\d+ \\d+ \\d+")) {
+                            result = line;
+                        }
+                    }
+                }
+                if (process.waitFor() != 0 || result == null) {
+                    throw new IllegalStateException(name + " failed: " + command);
+                }
+                wall.add((System.nanoTime() - start) / 1_000_000);
+                last = result.split(" ");
+                uptime.add(Long.parseLong(last[0]));
+            }
+            System.out.printf("%-20s %12d %12d %10s %6s%n", name, median(wall), median(uptime), last[1], last[2]);
+        }
+
+        private static long median(List<Long> values) {
+            Collections.sort(values);
+            return values.get(values.size() / 2);
+        }
+    }
+}
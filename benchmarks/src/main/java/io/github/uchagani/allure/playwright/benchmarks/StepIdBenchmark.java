@@ -0,0 +1,32 @@
+package io.github.uchagani.allure.playwright.benchmarks;
+
+import io.github.uchagani.allure.playwright.StepIdGenerator;
+import io.github.uchagani.allure.playwright.StepIdGenerators;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step id generation with 16 threads, roughly one per parallel JUnit worker. Does not need the weaver agent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class StepIdBenchmark {
+    private final StepIdGenerator random = StepIdGenerators.random();
+    private final StepIdGenerator sequential = StepIdGenerators.sequential();
+
+    @Benchmark
+    public String random() {
+        return random.nextId();
+    }
+
+    @Benchmark
+    public String sequential() {
+        return sequential.nextId();
+    }
+}
@@ -1,16 +1,20 @@
 package io.github.uchagani.allure.playwright;
 
 import com.microsoft.playwright.impl.APIResponseAssertionsImpl;
-import io.qameta.allure.Allure;
 import io.qameta.allure.AllureLifecycle;
 import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
 import io.qameta.allure.model.StepResult;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.*;
-import org.aspectj.lang.reflect.MethodSignature;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
-import java.util.UUID;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 
 import static io.qameta.allure.util.ResultsUtils.getStatus;
 import static io.qameta.allure.util.ResultsUtils.getStatusDetails;
@@ -18,56 +22,114 @@ import static io.qameta.allure.util.ResultsUtils.getStatusDetails;
 @SuppressWarnings("unused")
 @Aspect
 public class APIResponseAssertionsImplAspect {
-    private static final InheritableThreadLocal<AllureLifecycle> lifecycle =
-            new InheritableThreadLocal<AllureLifecycle>() {
-                @Override
-                protected AllureLifecycle initialValue() {
-                    return Allure.getLifecycle();
-                }
-            };
+    private static final ThreadLocal<Deque<String>> steps = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final MethodHandle isNotGetter = findIsNotGetter();
+    private static final Map<String, String> expectations = new HashMap<>();
 
+    static {
+        expectations.put("isOK", "be OK");
+    }
+
+    /**
+     * @deprecated use {@link AllurePlaywrightContext#getLifecycle()}
+     */
+    @Deprecated
     public static AllureLifecycle getLifecycle() {
-        return lifecycle.get();
+        return AllurePlaywrightContext.getLifecycle();
     }
 
+    /**
+     * @deprecated use {@link AllurePlaywrightContext#setLifecycle(AllureLifecycle)}
+     */
+    @Deprecated
     public static void setLifecycle(final AllureLifecycle allure) {
-        lifecycle.set(allure);
+        AllurePlaywrightContext.setLifecycle(allure);
     }
 
-    private static boolean getIsNot(APIResponseAssertionsImpl apiResponseAssertionsImpl) throws NoSuchFieldException, IllegalAccessException {
-        Field isNotField = apiResponseAssertionsImpl.getClass().getDeclaredField("isNot");
-        isNotField.setAccessible(true);
-        return (boolean) isNotField.get(apiResponseAssertionsImpl);
+    private static MethodHandle findIsNotGetter() {
+        try {
+            Field isNotField = APIResponseAssertionsImpl.class.getDeclaredField("isNot");
+            isNotField.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(isNotField);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Playwright renamed or hid the field; steps are then reported without "not".
+            return null;
+        }
     }
 
-    @Pointcut("execution(* com.microsoft.playwright.impl.APIResponseAssertionsImpl.isOK())")
-    public void apiResponseIsOk() {
+    private static boolean getIsNot(APIResponseAssertionsImpl apiResponseAssertionsImpl) {
+        if (isNotGetter == null) {
+            return false;
+        }
+        try {
+            return (boolean) isNotGetter.invokeExact(apiResponseAssertionsImpl);
+        } catch (Throwable t) {
+            return false;
+        }
     }
 
-    @Before("apiResponseIsOk()")
-    public void stepStartApiResponse(final JoinPoint joinPoint) throws NoSuchFieldException, IllegalAccessException {
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        APIResponseAssertionsImpl apiResponseAssertionsImpl = (APIResponseAssertionsImpl) joinPoint.getTarget();
+    private static String getExpectation(String methodName) {
+        String expectation = expectations.get(methodName);
+        if (expectation != null) {
+            return expectation;
+        }
+        // toHaveStatus -> have status, isJSON -> be JSON
+        String name = methodName.startsWith("is") ? "be" + methodName.substring(2) : methodName.replaceFirst("^to", "");
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean upperPrevious = i > 0 && Character.isUpperCase(name.charAt(i - 1));
+            boolean upperNext = i + 1 < name.length() && Character.isUpperCase(name.charAt(i + 1));
+            if (Character.isUpperCase(c) && i > 0 && !upperPrevious) {
+                words.append(' ');
+            }
+            words.append(upperPrevious || upperNext ? c : Character.toLowerCase(c));
+        }
+        return words.toString();
+    }
+
+    @Pointcut("execution(public void com.microsoft.playwright.impl.APIResponseAssertionsImpl.*(..))")
+    public void apiResponseAssertion() {
+    }
+
+    @Before(value = "apiResponseAssertion() && this(assertions)", argNames = "staticPart,assertions")
+    public void stepStartApiResponse(final JoinPoint.StaticPart staticPart, final APIResponseAssertionsImpl assertions) {
         String stepName = "Expect APIResponse to ";
-        if (getIsNot(apiResponseAssertionsImpl)) {
+        if (getIsNot(assertions)) {
             stepName = stepName + "not ";
         }
-        stepName = stepName + "be OK";
-        String uuid = UUID.randomUUID().toString();
+        stepName = stepName + getExpectation(staticPart.getSignature().getName());
+        String uuid = StepIdGenerators.get().nextId();
         StepResult result = new StepResult().setName(stepName);
-        getLifecycle().startStep(uuid, result);
+        AllureLifecycle lifecycle = AllurePlaywrightContext.getLifecycle();
+        String parentUuid = AllurePlaywrightContext.getPropagatedParentUuid(lifecycle);
+        if (parentUuid != null) {
+            lifecycle.startStep(parentUuid, uuid, result);
+        } else {
+            lifecycle.startStep(uuid, result);
+        }
+        steps.get().push(uuid);
     }
 
-    @AfterThrowing(pointcut = "apiResponseIsOk()", throwing = "e")
-    public void stepFailed(final Throwable e) {
-        getLifecycle().updateStep(s -> s.setStatus(getStatus(e).orElse(Status.BROKEN))
-                .setStatusDetails(getStatusDetails(e).orElse(null)));
-        getLifecycle().stopStep();
+    @AfterThrowing(pointcut = "apiResponseAssertion()", throwing = "e", argNames = "staticPart,e")
+    public void stepFailed(final JoinPoint.StaticPart staticPart, final Throwable e) {
+        PlaywrightMetrics.recordApiResponseAssertion(staticPart.getSignature().getName(), false);
+        stopStep(getStatus(e).orElse(Status.BROKEN), getStatusDetails(e).orElse(null));
     }
 
-    @AfterReturning(pointcut = "apiResponseIsOk()")
-    public void stepStop() {
-        getLifecycle().updateStep(s -> s.setStatus(Status.PASSED));
-        getLifecycle().stopStep();
+    @AfterReturning(pointcut = "apiResponseAssertion()", argNames = "staticPart")
+    public void stepStop(final JoinPoint.StaticPart staticPart) {
+        PlaywrightMetrics.recordApiResponseAssertion(staticPart.getSignature().getName(), true);
+        stopStep(Status.PASSED, null);
+    }
+
+    private static void stopStep(Status status, StatusDetails details) {
+        String uuid = steps.get().poll();
+        if (uuid == null) {
+            return;
+        }
+        AllureLifecycle lifecycle = AllurePlaywrightContext.getLifecycle();
+        lifecycle.updateStep(uuid, s -> s.setStatus(status).setStatusDetails(details));
+        lifecycle.stopStep(uuid);
     }
 }
@@ -0,0 +1,186 @@
+package io.github.uchagani.allure.playwright;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the {@link AllureLifecycle} that both aspects report steps to.
+ * <p>
+ * By default this is {@link Allure#getLifecycle()}. A lifecycle set through {@link #setLifecycle(AllureLifecycle)}
+ * overrides it for the current thread only; it is not inherited by child threads. Until the first override is set, no
+ * thread-local state is created at all, so threads that only resolve the lifecycle stay free of per-thread setup. Use
+ * {@link #runWithLifecycle(AllureLifecycle, Runnable)} or {@link #clearLifecycle()} on pooled threads so an override
+ * does not outlive the test that set it.
+ * <p>
+ * To drive pages from other threads, wrap the task with one of the {@code wrap} methods. The wrapped task reports steps
+ * to the lifecycle of the thread that wrapped it, nested under the test or step that was current at that point, unless
+ * the task starts steps of its own.
+ * <p>
+ * On JVMs that provide {@code java.lang.ScopedValue}, {@link #runWithLifecycle(AllureLifecycle, Runnable)} and wrapped
+ * tasks bind their context as a scoped value instead of a thread-local, so virtual threads neither copy it nor leave
+ * it behind on their carrier. Set {@code allure.playwright.context.scopedValues=false} to always use thread-locals.
+ */
+public final class AllurePlaywrightContext {
+    private static final ThreadLocal<Binding> bindings = new ThreadLocal<>();
+    private static final ScopedBinding<Binding> scopedBindings =
+            Config.contextScopedValues ? ScopedBinding.create() : null;
+    private static volatile boolean overridden;
+    private static volatile boolean propagating;
+
+    private AllurePlaywrightContext() {
+    }
+
+    public static AllureLifecycle getLifecycle() {
+        if (overridden) {
+            Binding binding = currentBinding();
+            if (binding != null) {
+                return binding.lifecycle;
+            }
+        }
+        return Allure.getLifecycle();
+    }
+
+    /**
+     * Reports steps of the current thread to the given lifecycle until {@link #clearLifecycle()} is called.
+     */
+    public static void setLifecycle(final AllureLifecycle allure) {
+        Objects.requireNonNull(allure, "allure");
+        overridden = true;
+        bindings.set(new Binding(allure, null, null));
+    }
+
+    /**
+     * Removes the override of the current thread.
+     */
+    public static void clearLifecycle() {
+        bindings.remove();
+    }
+
+    /**
+     * Runs the given code with steps of the current thread reported to the given lifecycle, restoring the previous
+     * override afterwards.
+     */
+    public static void runWithLifecycle(final AllureLifecycle allure, final Runnable runnable) {
+        Objects.requireNonNull(allure, "allure");
+        overridden = true;
+        run(new Binding(allure, null, null), () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public static Runnable wrap(final Runnable runnable) {
+        Captured context = capture();
+        return () -> run(context.enter(), () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public static <T> Callable<T> wrap(final Callable<T> callable) {
+        Captured context = capture();
+        return () -> call(context.enter(), callable);
+    }
+
+    public static <T> Supplier<T> wrap(final Supplier<T> supplier) {
+        Captured context = capture();
+        return () -> run(context.enter(), supplier::get);
+    }
+
+    /**
+     * Returns an executor that wraps every task with the context of the thread that submits it.
+     */
+    public static Executor wrap(final Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Returns the uuid that steps of the current thread are nested under if it runs a wrapped task, or {@code null}.
+     */
+    static String getPropagatedParentUuid(final AllureLifecycle allure) {
+        if (!propagating) {
+            return null;
+        }
+        Binding binding = currentBinding();
+        if (binding == null || binding.parentUuid == null || binding.lifecycle != allure) {
+            return null;
+        }
+        String current = allure.getCurrentTestCaseOrStep().orElse(null);
+        return current == null || current.equals(binding.baselineUuid) ? binding.parentUuid : current;
+    }
+
+    private static Binding currentBinding() {
+        if (scopedBindings != null && scopedBindings.isBound()) {
+            return scopedBindings.get();
+        }
+        return bindings.get();
+    }
+
+    private static Captured capture() {
+        AllureLifecycle allure = getLifecycle();
+        String parentUuid = allure.getCurrentTestCaseOrStep().orElse(null);
+        overridden = true;
+        propagating = true;
+        return new Captured(allure, parentUuid);
+    }
+
+    private static <T> T run(Binding binding, Supplier<T> task) {
+        try {
+            return call(binding, task::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Exception e) {
+            // unreachable, a Supplier cannot throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T call(Binding binding, Callable<T> task) throws Exception {
+        if (scopedBindings != null) {
+            return scopedBindings.call(binding, task);
+        }
+        Binding previous = bindings.get();
+        bindings.set(binding);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                bindings.remove();
+            } else {
+                bindings.set(previous);
+            }
+        }
+    }
+
+    private static final class Binding {
+        private final AllureLifecycle lifecycle;
+        private final String parentUuid;
+        private final String baselineUuid;
+
+        private Binding(AllureLifecycle lifecycle, String parentUuid, String baselineUuid) {
+            this.lifecycle = lifecycle;
+            this.parentUuid = parentUuid;
+            this.baselineUuid = baselineUuid;
+        }
+    }
+
+    private static final class Captured {
+        private final AllureLifecycle allure;
+        private final String parentUuid;
+
+        private Captured(AllureLifecycle allure, String parentUuid) {
+            this.allure = allure;
+            this.parentUuid = parentUuid;
+        }
+
+        private Binding enter() {
+            // steps the task starts itself are nested under their own parent, anything else under the captured one
+            return new Binding(allure, parentUuid, allure.getCurrentTestCaseOrStep().orElse(null));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * JUnit 5 extension that starts one {@link Playwright} and one {@link Browser} per test thread and gives every test a
+ * new {@link BrowserContext} and {@link Page}.
+ * <p>
+ * Test methods and {@code @BeforeEach} and {@code @AfterEach} methods receive them through parameters of these four
+ * types annotated with {@link InjectPlaywright}, so other extensions can still resolve unannotated ones. Playwright
+ * and browsers are shared by all test classes that use the same browser and launch options, and are closed when the
+ * test run ends. Contexts are closed after each test without reporting a step, so every test only reports the steps
+ * it made itself.
+ * <p>
+ * The browser is {@code chromium} unless {@code allure.playwright.browser} is set to {@code firefox} or
+ * {@code webkit}. Register an instance with {@code @RegisterExtension} to pass launch or context options.
+ */
+public class AllurePlaywrightExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+    private static final ExtensionContext.Namespace namespace =
+            ExtensionContext.Namespace.create(AllurePlaywrightExtension.class);
+    private static final List<Class<?>> resolvedTypes =
+            Arrays.asList(Playwright.class, Browser.class, BrowserContext.class, Page.class);
+
+    private String browser = Config.browser;
+    private BrowserType.LaunchOptions launchOptions;
+    private Browser.NewContextOptions contextOptions;
+
+    public AllurePlaywrightExtension browser(String browser) {
+        this.browser = Objects.requireNonNull(browser, "browser");
+        return this;
+    }
+
+    /**
+     * Launches the browser with the given options. Test classes that pass different options get different browsers.
+     */
+    public AllurePlaywrightExtension launchOptions(BrowserType.LaunchOptions launchOptions) {
+        this.launchOptions = launchOptions;
+        return this;
+    }
+
+    public AllurePlaywrightExtension contextOptions(Browser.NewContextOptions contextOptions) {
+        this.contextOptions = contextOptions;
+        return this;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        WorkerKey key = new WorkerKey(Thread.currentThread().getId(), browser, launchOptions);
+        Worker worker = context.getRoot().getStore(namespace)
+                .getOrComputeIfAbsent(key, k -> new Worker(browser, launchOptions), Worker.class);
+        BrowserContext browserContext = worker.browser.newContext(
+                contextOptions == null ? new Browser.NewContextOptions() : contextOptions);
+        ExtensionContext.Store store = context.getStore(namespace);
+        store.put(Playwright.class, worker.playwright);
+        store.put(Browser.class, worker.browser);
+        store.put(BrowserContext.class, browserContext);
+        store.put(Page.class, browserContext.newPage());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        BrowserContext browserContext = context.getStore(namespace).remove(BrowserContext.class, BrowserContext.class);
+        if (browserContext != null) {
+            ChannelOwnerAspect.runUnreported(browserContext::close);
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.isAnnotated(InjectPlaywright.class)
+                && resolvedTypes.contains(parameterContext.getParameter().getType());
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        Object value = extensionContext.getStore(namespace).get(type, type);
+        if (value == null) {
+            throw new ParameterResolutionException(type.getSimpleName()
+                    + " is only available to test methods and @BeforeEach and @AfterEach methods");
+        }
+        return value;
+    }
+
+    private static BrowserType browserType(Playwright playwright, String browser) {
+        switch (browser) {
+            case "chromium":
+                return playwright.chromium();
+            case "firefox":
+                return playwright.firefox();
+            case "webkit":
+                return playwright.webkit();
+            default:
+                throw new IllegalArgumentException("Unknown browser " + browser);
+        }
+    }
+
+    private static final class Worker implements ExtensionContext.Store.CloseableResource {
+        private final Playwright playwright;
+        private final Browser browser;
+
+        private Worker(String browser, BrowserType.LaunchOptions launchOptions) {
+            playwright = Playwright.create();
+            try {
+                this.browser = browserType(playwright, browser)
+                        .launch(launchOptions == null ? new BrowserType.LaunchOptions() : launchOptions);
+            } catch (RuntimeException e) {
+                playwright.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            playwright.close();
+        }
+    }
+
+    private static final class WorkerKey {
+        private final long threadId;
+        private final String browser;
+        private final BrowserType.LaunchOptions launchOptions;
+
+        private WorkerKey(long threadId, String browser, BrowserType.LaunchOptions launchOptions) {
+            this.threadId = threadId;
+            this.browser = browser;
+            this.launchOptions = launchOptions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof WorkerKey)) {
+                return false;
+            }
+            WorkerKey other = (WorkerKey) o;
+            // launch options do not implement equals, so only the same instance is the same configuration
+            return threadId == other.threadId && browser.equals(other.browser) && launchOptions == other.launchOptions;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(threadId, browser, System.identityHashCode(launchOptions));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.uchagani.allure.playwright;
+
+import io.qameta.allure.listener.FixtureLifecycleListener;
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.listener.TestLifecycleListener;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+
+/**
+ * Hooks the adapter into the Allure lifecycle. Registered through {@code META-INF/services}.
+ */
+public class AllurePlaywrightLifecycleListener implements TestLifecycleListener, StepLifecycleListener,
+        FixtureLifecycleListener {
+
+    @Override
+    public void beforeStepStart(StepResult result) {
+        ChannelOwnerAspect.stepStarted();
+        if (Config.asyncSteps && !AsyncStepWriter.isWriterThread()) {
+            AsyncStepWriter.flush();
+        }
+    }
+
+    @Override
+    public void beforeStepStop(StepResult result) {
+        if (Config.asyncSteps && !AsyncStepWriter.isWriterThread()) {
+            AsyncStepWriter.flush();
+        }
+    }
+
+    @Override
+    public void beforeFixtureStop(FixtureResult result) {
+        if (Config.asyncSteps) {
+            AsyncStepWriter.flush();
+        }
+    }
+
+    @Override
+    public void beforeTestStart(TestResult result) {
+        if (Config.asyncSteps) {
+            AsyncStepWriter.testStarted(result.getUuid());
+        }
+        if (Config.stepSpill && !(result.getSteps() instanceof SpilledSteps)) {
+            result.setSteps(new SpilledSteps(result.getSteps()));
+        }
+        if (Config.timeline) {
+            Timeline.testStarted();
+        }
+    }
+
+    @Override
+    public void beforeTestStop(TestResult result) {
+        if (Config.asyncSteps) {
+            AsyncStepWriter.flush();
+        }
+        if (Config.timeline) {
+            Timeline.testStopping(result);
+        }
+    }
+
+    @Override
+    public void afterTestStop(TestResult result) {
+        if (Config.asyncSteps) {
+            AsyncStepWriter.testStopped(result.getUuid());
+        }
+    }
+
+    @Override
+    public void afterTestWrite(TestResult result) {
+        if (result.getSteps() instanceof SpilledSteps) {
+            ((SpilledSteps) result.getSteps()).delete();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.uchagani.allure.playwright;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.StepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies step events to the {@link AllureLifecycle} on a single background thread, so the thread driving the browser
+ * only pays for enqueueing an immutable event.
+ * <p>
+ * Events are applied in the order they were enqueued. Steps are added to the steps of an explicit parent captured on
+ * the calling thread through {@code updateTestCase}, {@code updateFixture} or {@code updateStep}, so the background
+ * thread never starts or stops steps in its own thread context. {@link #flush()} blocks until everything enqueued
+ * before the call has been applied. It is invoked by {@link AllurePlaywrightLifecycleListener} before any test or
+ * fixture stops and before any foreign step starts or stops, so the steps of a parent are never added to from two
+ * threads at once.
+ * <p>
+ * As the steps are not started through {@link AllureLifecycle#startStep}, Allure does not call the registered
+ * {@link io.qameta.allure.listener.StepLifecycleListener}s for them.
+ */
+final class AsyncStepWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncStepWriter.class);
+    private static final int maxBatchSize = 256;
+
+    private static final BlockingQueue<StepEvent> events = new ArrayBlockingQueue<>(Config.asyncStepsBufferSize);
+    private static final Set<String> runningTests = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong enqueued = new AtomicLong();
+    private static final Object appliedLock = new Object();
+    private static long applied;
+    private static volatile Thread consumer;
+
+    private AsyncStepWriter() {
+    }
+
+    static void testStarted(String uuid) {
+        runningTests.add(uuid);
+    }
+
+    static void testStopped(String uuid) {
+        runningTests.remove(uuid);
+    }
+
+    static void startStep(AllureLifecycle lifecycle, String parentUuid, String uuid, StepResult result, long start) {
+        // a root that is not a running test is a fixture
+        Parent parent = runningTests.contains(parentUuid) ? Parent.TEST
+                : parentUuid.equals(lifecycle.getCurrentTestCase().orElse(null)) ? Parent.FIXTURE : Parent.STEP;
+        enqueue(new StepEvent(lifecycle, parentUuid, parent, uuid, result, null, null, start));
+    }
+
+    static void stopStep(AllureLifecycle lifecycle, String uuid, StepResult result, Status status, StatusDetails details) {
+        enqueue(new StepEvent(lifecycle, null, null, uuid, result, status, details, System.currentTimeMillis()));
+    }
+
+    static boolean isWriterThread() {
+        return Thread.currentThread() == consumer;
+    }
+
+    static void flush() {
+        if (consumer == null || isWriterThread()) {
+            return;
+        }
+        long target = enqueued.get();
+        synchronized (appliedLock) {
+            boolean interrupted = false;
+            while (applied < target) {
+                try {
+                    appliedLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void enqueue(StepEvent event) {
+        ensureStarted();
+        // counted before it is queued so that flush() never returns ahead of an event queued before the call
+        enqueued.incrementAndGet();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                events.put(event);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized void ensureStarted() {
+        if (consumer != null) {
+            return;
+        }
+        consumer = new Thread(AsyncStepWriter::run, "allure-playwright-steps");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    private static void run() {
+        List<StepEvent> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                batch.add(events.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            events.drainTo(batch, maxBatchSize - 1);
+            for (StepEvent event : batch) {
+                try {
+                    event.apply();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Could not apply step event for step {}", event.uuid, e);
+                }
+            }
+            synchronized (appliedLock) {
+                applied += batch.size();
+                appliedLock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private enum Parent {
+        TEST, FIXTURE, STEP
+    }
+
+    private static final class StepEvent {
+        private final AllureLifecycle lifecycle;
+        private final String parentUuid;
+        private final Parent parent;
+        private final String uuid;
+        private final StepResult result;
+        private final Status status;
+        private final StatusDetails details;
+        private final long time;
+
+        private StepEvent(AllureLifecycle lifecycle, String parentUuid, Parent parent, String uuid, StepResult result,
+                          Status status, StatusDetails details, long time) {
+            this.lifecycle = lifecycle;
+            this.parentUuid = parentUuid;
+            this.parent = parent;
+            this.uuid = uuid;
+            this.result = result;
+            this.status = status;
+            this.details = details;
+            this.time = time;
+        }
+
+        private void apply() {
+            if (parentUuid == null) {
+                result.setStatus(status).setStatusDetails(details).setStage(Stage.FINISHED).setStop(time);
+                return;
+            }
+            result.setStage(Stage.RUNNING).setStart(time);
+            switch (parent) {
+                case TEST:
+                    lifecycle.updateTestCase(parentUuid, test -> test.getSteps().add(result));
+                    break;
+                case FIXTURE:
+                    lifecycle.updateFixture(parentUuid, fixture -> fixture.getSteps().add(result));
+                    break;
+                default:
+                    lifecycle.updateStep(parentUuid, step -> step.getSteps().add(result));
+            }
+        }
+    }
+}
@@ -1,193 +1,337 @@
 package io.github.uchagani.allure.playwright;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import io.qameta.allure.Allure;
+import com.microsoft.playwright.TimeoutError;
 import io.qameta.allure.AllureLifecycle;
 import io.qameta.allure.model.Parameter;
 import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
 import io.qameta.allure.model.StepResult;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.*;
-import org.aspectj.lang.reflect.MethodSignature;
 
-import java.util.HashMap;
-import java.util.List;
+import java.util.ArrayDeque;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
-import static io.github.uchagani.allure.playwright.Constants.*;
-import static io.qameta.allure.util.AspectUtils.getParameters;
+import static io.github.uchagani.allure.playwright.Constants.expectMethodName;
+import static io.github.uchagani.allure.playwright.Constants.fetchMethodName;
 import static io.qameta.allure.util.ResultsUtils.getStatus;
 import static io.qameta.allure.util.ResultsUtils.getStatusDetails;
 
 @SuppressWarnings("unused")
 @Aspect
 public class ChannelOwnerAspect {
-    static final Map<String, String> actionMethodNamesMap = new HashMap<>();
-    private static final InheritableThreadLocal<AllureLifecycle> lifecycle =
-            new InheritableThreadLocal<AllureLifecycle>() {
-                @Override
-                protected AllureLifecycle initialValue() {
-                    return Allure.getLifecycle();
-                }
-            };
-
-    static {
-        actionMethodNamesMap.put(checkMethodName, checkStepPrefix);
-        actionMethodNamesMap.put(clickMethodName, clickStepPrefix);
-        actionMethodNamesMap.put(dblclickMethodName, dblclickStepPrefix);
-        actionMethodNamesMap.put(dragAndDropMethodName, "");
-        actionMethodNamesMap.put(fillMethodName, "");
-        actionMethodNamesMap.put(focusMethodName, focusStepPrefix);
-        actionMethodNamesMap.put(hoverMethodName, hoverStepPrefix);
-        actionMethodNamesMap.put(pressMethodName, pressStepPrefix);
-        actionMethodNamesMap.put(selectOptionMethodName, selectOptionStepPrefix);
-        actionMethodNamesMap.put(setInputFilesMethodName, setInputFilesStepPrefix);
-        actionMethodNamesMap.put(tapMethodName, tapStepPrefix);
-        actionMethodNamesMap.put(typeMethodName, typeStepPrefix);
-        actionMethodNamesMap.put(uncheckMethodName, uncheckStepPrefix);
-        actionMethodNamesMap.put(goBackMethodName, goBackStepPrefix);
-        actionMethodNamesMap.put(goForwardMethodName, goForwardStepPrefix);
-        actionMethodNamesMap.put(closeMethodName, closeStepPrefix);
-        actionMethodNamesMap.put(gotoMethodName, gotoStepPrefix);
-        actionMethodNamesMap.put(expectMethodName, expectStepPrefix);
-        actionMethodNamesMap.put(fetchMethodName, fetchStepPrefix);
-    }
-
+    private static final ThreadLocal<Steps> steps = ThreadLocal.withInitial(Steps::new);
+    private static final Step notReported = new Step("", new JsonObject(), null, null);
+    private static final long defaultExpectTimeoutMillis = 5000;
+
+    /**
+     * @deprecated use {@link AllurePlaywrightContext#getLifecycle()}
+     */
+    @Deprecated
     public static AllureLifecycle getLifecycle() {
-        return lifecycle.get();
+        return AllurePlaywrightContext.getLifecycle();
     }
 
+    /**
+     * @deprecated use {@link AllurePlaywrightContext#setLifecycle(AllureLifecycle)}
+     */
+    @Deprecated
     public static void setLifecycle(final AllureLifecycle allure) {
-        lifecycle.set(allure);
+        AllurePlaywrightContext.setLifecycle(allure);
     }
 
     @Pointcut("execution(* com.microsoft.playwright.impl.ChannelOwner.sendMessage(String, com.google.gson.JsonObject))")
-    public void actionMethods() {
+    public void sendMessage() {
     }
 
-    @Before("actionMethods()")
-    public void beforeActionMethods(final JoinPoint joinPoint) {
-        String method = (String) joinPoint.getArgs()[0];
-        String actionName = actionMethodNamesMap.get(method);
-        if (actionName == null) {
+    @Pointcut(value = "sendMessage() && args(method, params) && if()", argNames = "method,params")
+    public static boolean actionMethods(String method, JsonObject params) {
+        return StepNameRenderers.get(method) != null;
+    }
+
+    @Before(value = "actionMethods(method, params)", argNames = "method,params")
+    public void beforeActionMethods(final String method, final JsonObject params) {
+        Steps stack = steps.get();
+        // every call gets an entry, so each after advice pops the entry of its own call
+        if (stack.unreported > 0) {
+            stack.push(notReported);
             return;
         }
+        AllureLifecycle lifecycle = AllurePlaywrightContext.getLifecycle();
+        String parentUuid = AllurePlaywrightContext.getPropagatedParentUuid(lifecycle);
+        if (parentUuid == null
+                && (Config.asyncSteps || Config.collapseSteps || Config.stepSampleRate < 1 || method.equals(expectMethodName))) {
+            parentUuid = lifecycle.getCurrentTestCaseOrStep().orElse(null);
+            if (parentUuid == null) {
+                stack.push(notReported);
+                return;
+            }
+        }
 
-        String uuid = UUID.randomUUID().toString();
-        JsonObject params = (JsonObject) joinPoint.getArgs()[1];
-        String stepName = getStepName(method, params);
-        List<Parameter> parameters = getParameters((MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
-        StepResult result = new StepResult().setName(stepName).setParameters(parameters);
-        getLifecycle().startStep(uuid, result);
+        Step step = new Step(method, params, lifecycle, parentUuid);
+        Step last = stack.last;
+        // decided before any StepResult is allocated
+        if (last != null && last.isRepeatedBy(step)) {
+            step.repeatOf = last.result;
+        } else if (Config.stepSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= Config.stepSampleRate) {
+            // sampled out; reported only if it fails
+        } else {
+            step.start();
+        }
+        stack.push(step);
+        // taken last so the round trip covers sendMessage only
+        step.startNanos = System.nanoTime();
     }
 
-    @AfterThrowing(pointcut = "actionMethods()", throwing = "e")
-    public void stepFailed(final Throwable e) {
-        getLifecycle().updateStep(s -> s.setStatus(getStatus(e).orElse(Status.BROKEN))
-                .setStatusDetails(getStatusDetails(e).orElse(null)));
-        getLifecycle().stopStep();
+    @AfterThrowing(pointcut = "actionMethods(method, params) && this(channelOwner)", throwing = "e",
+            argNames = "method,params,channelOwner,e")
+    public void stepFailed(final String method, final JsonObject params, final Object channelOwner,
+                           final Throwable e) {
+        Step step = popStep(method);
+        if (step != null) {
+            PlaywrightMetrics.recordActionFailure(method, e instanceof TimeoutError);
+            if (Config.timeline) {
+                Timeline.record(method, params, step.startNanos, step.startNanos + step.roundTripNanos, true);
+            }
+            if (step.repeatOf != null && step.isAttempt()
+                    && step.repeat(getStatus(e).orElse(Status.BROKEN), getStatusDetails(e).orElse(null))) {
+                return;
+            }
+            // other failing steps are always reported, even if they were sampled out or repeat the previous step
+            if (step.result == null) {
+                step.start();
+            }
+            if (Config.fetchBodies && method.equals(fetchMethodName)) {
+                FetchBodyAttachments.attachRequest(step.lifecycle, step.result, params);
+            }
+            if (Config.failureScreenshot || Config.failureDom) {
+                FailureArtifacts.capture(step.lifecycle, step.result, channelOwner);
+            }
+            step.stop(getStatus(e).orElse(Status.BROKEN), getStatusDetails(e).orElse(null));
+        }
     }
 
-    @AfterReturning(pointcut = "actionMethods()")
-    public void stepStop() {
-        getLifecycle().updateStep(s -> s.setStatus(Status.PASSED));
-        getLifecycle().stopStep();
+    @AfterReturning(pointcut = "actionMethods(method, params) && this(channelOwner)", returning = "response",
+            argNames = "method,params,channelOwner,response")
+    public void stepStop(final String method, final JsonObject params, final Object channelOwner,
+                         final JsonElement response) {
+        Step step = popStep(method);
+        if (step != null) {
+            Status status = step.isAttempt() ? getExpectStatus(params, response) : Status.PASSED;
+            if (status != Status.PASSED) {
+                PlaywrightMetrics.recordActionFailure(method, false);
+            }
+            if (Config.timeline) {
+                Timeline.record(method, params, step.startNanos, step.startNanos + step.roundTripNanos,
+                        status != Status.PASSED);
+            }
+            if (step.repeatOf != null && step.repeat(status,
+                    status == Status.FAILED ? getExpectStatusDetails(step.repeatOf, response) : null)) {
+                return;
+            }
+            if (step.result == null) {
+                // a passing call that could not be merged because the step it repeats was spilled is still reported
+                if (status == Status.PASSED && step.repeatOf == null) {
+                    return;
+                }
+                step.start();
+            }
+            if (Config.fetchBodies && method.equals(fetchMethodName)) {
+                FetchBodyAttachments.attachRequest(step.lifecycle, step.result, params);
+                FetchBodyAttachments.attachResponse(step.lifecycle, step.result, channelOwner, response);
+            }
+            StatusDetails details = null;
+            if (status == Status.FAILED) {
+                details = getExpectStatusDetails(step.result, response);
+                if (Config.failureScreenshot || Config.failureDom) {
+                    FailureArtifacts.capture(step.lifecycle, step.result, channelOwner);
+                }
+            }
+            step.stop(status, details);
+        }
     }
 
-    private String getStepNameForAssertion(JsonObject params) {
-        String expression = params.get("expression").getAsString().replace(".", " ");
-        String expectedText = "";
+    /**
+     * Runs the given code without reporting the Playwright calls it makes on the current thread as steps.
+     */
+    static void runUnreported(Runnable runnable) {
+        Steps stack = steps.get();
+        stack.unreported++;
         try {
-            expectedText = ": " + params.get("expectedText").getAsJsonArray().get(0).getAsJsonObject().get("string").getAsString();
-        } catch (NullPointerException npe) {
-            // ignore because expected text doesn't exist in the params.
+            runnable.run();
+        } finally {
+            stack.unreported--;
         }
-        return "Expect " + params.get("selector").getAsString() + " " + expression + expectedText;
     }
 
-    private String getStepNameForAPIRequest(JsonObject params) {
-        return params.get("method").getAsString() + " " + params.get("url").getAsString();
+    /**
+     * Called when any step starts on the current thread. The previous Playwright step is then no longer the latest
+     * step of its parent, so the next call must not be merged into it.
+     */
+    static void stepStarted() {
+        steps.get().last = null;
     }
 
-    private String getStepNameForNavigation(JsonObject params) {
-        return gotoStepPrefix + params.get("url").getAsString();
+    private static Step popStep(String method) {
+        long stopNanos = System.nanoTime();
+        Steps stack = steps.get();
+        Step step = stack.poll();
+        if (step == null || step == notReported) {
+            return null;
+        }
+        step.roundTripNanos = stopNanos - step.startNanos;
+        PlaywrightMetrics.recordAction(method, step.roundTripNanos);
+        stack.last = null;
+        return step;
     }
 
-    private String getStepNameForLocator(String method, JsonObject params) {
-        String selector = params.get("selector").getAsString();
-        if (selector.equals(":root")) {
-            selector = "page";
+    /**
+     * An {@code expect} call returns whether the element matched; the assertion fails if that equals {@code isNot}.
+     */
+    private static Status getExpectStatus(JsonObject params, JsonElement response) {
+        if (response == null || !response.isJsonObject() || !response.getAsJsonObject().has("matches")) {
+            return Status.PASSED;
         }
-        return actionMethodNamesMap.get(method) + selector;
+        boolean matches = response.getAsJsonObject().get("matches").getAsBoolean();
+        boolean isNot = params.has("isNot") && params.get("isNot").getAsBoolean();
+        return matches != isNot ? Status.PASSED : Status.FAILED;
     }
 
-    private String getStepNameForDragAndDrop(JsonObject params) {
-        return "Drag " + params.get("source").getAsString() + " to " + params.get("target").getAsString();
+    /**
+     * A failed {@code expect} call does not throw, so the details are built from the step name and the call log
+     * Playwright returns with the result.
+     */
+    private static StatusDetails getExpectStatusDetails(StepResult step, JsonElement response) {
+        StatusDetails details = new StatusDetails().setMessage(step.getName() + " failed");
+        JsonElement log = response.getAsJsonObject().get("log");
+        if (log != null && log.isJsonArray() && log.getAsJsonArray().size() > 0) {
+            StringBuilder trace = new StringBuilder("Call log:");
+            for (JsonElement line : log.getAsJsonArray()) {
+                trace.append("\n  ").append(line.isJsonPrimitive() ? line.getAsString() : line.toString());
+            }
+            details.setTrace(trace.toString());
+        }
+        return details;
     }
 
-    private String getStepNameForFill(JsonObject params) {
-        return "Fill " + params.get("selector").getAsString() + " with " + params.get("value").getAsString();
+    /**
+     * Timeout of an {@code expect} call in ms, or Playwright's default assertion timeout if the call has none.
+     */
+    private static long getExpectTimeout(JsonObject params) {
+        JsonElement timeout = params.get("timeout");
+        return timeout != null && timeout.isJsonPrimitive() && timeout.getAsJsonPrimitive().isNumber()
+                ? timeout.getAsLong() : defaultExpectTimeoutMillis;
     }
 
-    private String getStepNameForPress(JsonObject params) {
-        return "Press key(s) " + params.get("key").getAsString() + " on " + params.get("selector").getAsString();
+    /**
+     * Retries of an assertion may use a shorter timeout; everything else must be the same.
+     */
+    private static boolean isSameExpectation(JsonObject first, JsonObject second) {
+        int compared = 0;
+        for (Map.Entry<String, JsonElement> entry : first.entrySet()) {
+            if (entry.getKey().equals("timeout")) {
+                continue;
+            }
+            if (!entry.getValue().equals(second.get(entry.getKey()))) {
+                return false;
+            }
+            compared++;
+        }
+        return compared == second.size() - (second.has("timeout") ? 1 : 0);
     }
 
-    private String getStepNameForSetInputFiles(JsonObject params) {
-        String filename = params.get("files").getAsJsonArray().get(0).getAsJsonObject().get("name").getAsString();
-        return setInputFilesStepPrefix + filename;
-    }
+    private static final class Steps extends ArrayDeque<Step> {
+        private static final long serialVersionUID = 1L;
 
-    private String getStepNameForType(JsonObject params) {
-        return "Type " + params.get("text").getAsString() + " on " + params.get("selector").getAsString();
+        private Step last;
+        private int unreported;
     }
 
-    private String getStepName(String method, JsonObject params) {
-        if (method.equals("fetch")) {
-            return getStepNameForAPIRequest(params);
-        }
-
-        if (method.equals("goto")) {
-            return getStepNameForNavigation(params);
+    private static final class Step {
+        private final String method;
+        private final JsonObject params;
+        private final AllureLifecycle lifecycle;
+        private final String parentUuid;
+        private final long startMillis = System.currentTimeMillis();
+        private long startNanos;
+        private long roundTripNanos;
+        private PlaywrightStepResult repeatOf;
+        private Status status;
+        private String uuid;
+        private PlaywrightStepResult result;
+
+        private Step(String method, JsonObject params, AllureLifecycle lifecycle, String parentUuid) {
+            this.method = method;
+            this.params = params;
+            this.lifecycle = lifecycle;
+            this.parentUuid = parentUuid;
         }
 
-        if (method.equals("expect")) {
-            return getStepNameForAssertion(params);
+        private boolean isAttempt() {
+            return method.equals(expectMethodName);
         }
 
-        if (method.equals("dragAndDrop")) {
-            return getStepNameForDragAndDrop(params);
+        private boolean isRepeatedBy(Step next) {
+            if (!method.equals(next.method) || lifecycle != next.lifecycle || !Objects.equals(parentUuid, next.parentUuid)) {
+                return false;
+            }
+            if (isAttempt()) {
+                // only a failed assertion is retried, within the timeout of its first attempt; a passed one that is
+                // repeated is a new assertion
+                long firstStart = result != null && result.getStart() != null ? result.getStart() : startMillis;
+                return status == Status.FAILED && next.startMillis - firstStart <= getExpectTimeout(params)
+                        && isSameExpectation(params, next.params);
+            }
+            return Config.collapseSteps && status == Status.PASSED && params.equals(next.params);
         }
 
-        if (method.equals("fill")) {
-            return getStepNameForFill(params);
+        private void start() {
+            uuid = StepIdGenerators.get().nextId();
+            StepNameRenderer renderer = StepNameRenderers.get(method);
+            result = new PlaywrightStepResult(method, renderer, StepNameRenderers.retainedParams(method, renderer, params),
+                    startMillis);
+            result.setParameters(StepParameters.extract(method, params));
+            if (Config.asyncSteps) {
+                AsyncStepWriter.startStep(lifecycle, parentUuid, uuid, result, startMillis);
+            } else if (parentUuid != null) {
+                lifecycle.startStep(parentUuid, uuid, result);
+                result.setStart(startMillis);
+            } else {
+                lifecycle.startStep(uuid, result);
+            }
         }
 
-        if (method.equals("press")) {
-            return getStepNameForPress(params);
+        /**
+         * Merges the call into the step it repeats. Returns {@code false} if that step has already been written to the
+         * spill file, in which case the call has to be reported as a step of its own.
+         */
+        private boolean repeat(Status status, StatusDetails details) {
+            boolean merged = isAttempt()
+                    ? repeatOf.addAttempt(System.currentTimeMillis(), status, details)
+                    : repeatOf.addRepeat(System.currentTimeMillis());
+            if (!merged) {
+                return false;
+            }
+            this.status = status;
+            result = repeatOf;
+            steps.get().last = this;
+            return true;
         }
 
-        if (method.equals("setInputFiles")) {
-            return getStepNameForSetInputFiles(params);
+        private void stop(Status status, StatusDetails details) {
+            result.getParameters().add(new Parameter().setName(DriverLatency.parameterName)
+                    .setValue(DriverLatency.format(roundTripNanos)));
+            if (Config.asyncSteps) {
+                AsyncStepWriter.stopStep(lifecycle, uuid, result, status, details);
+            } else {
+                lifecycle.updateStep(uuid, s -> s.setStatus(status).setStatusDetails(details));
+                lifecycle.stopStep(uuid);
+            }
+            this.status = status;
+            steps.get().last = this;
         }
-
-        if (method.equals("type")) {
-            return getStepNameForType(params);
-        }
-
-        if (method.equals("goBack")) {
-            return goBackStepPrefix;
-        }
-
-        if (method.equals("goForward")) {
-            return goForwardStepPrefix;
-        }
-
-        if (method.equals("close")) {
-            return closeStepPrefix;
-        }
-
-        return getStepNameForLocator(method, params);
     }
 }
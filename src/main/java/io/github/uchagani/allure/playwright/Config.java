@@ -0,0 +1,80 @@
+package io.github.uchagani.allure.playwright;
+
+import io.qameta.allure.util.PropertiesUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Settings read once from {@code allure.properties} and system properties.
+ */
+final class Config {
+    private static final Properties properties = PropertiesUtils.loadAllureProperties();
+
+    static final int asyncStepsBufferSize = getInt("allure.playwright.steps.async.bufferSize", 8192);
+    static final boolean fetchBodies = getBoolean("allure.playwright.fetch.bodies", false);
+    static final int fetchBodiesMaxSize = getInt("allure.playwright.fetch.bodies.maxSize", 1024 * 1024);
+    static final boolean fetchBodiesCompress = getBoolean("allure.playwright.fetch.bodies.compress", false);
+    static final int failureQueueSize = getInt("allure.playwright.failure.queueSize", 16);
+    static final double failureCaptureTimeout = getDouble("allure.playwright.failure.timeout", 5000);
+    static final boolean latencySummary = getBoolean("allure.playwright.latency.summary", false);
+    static final String resultsDirectory = properties.getProperty("allure.results.directory", "allure-results");
+    static final boolean contextScopedValues = getBoolean("allure.playwright.context.scopedValues", true);
+    static final String stepIdGenerator = properties.getProperty("allure.playwright.steps.idGenerator");
+    static final int stepParameterMaxLength = getInt("allure.playwright.steps.parameterMaxLength", 256);
+    static final int stepNameCacheSize = getInt("allure.playwright.steps.nameCacheSize", 4096);
+    static final String metricsDirectory = properties.getProperty("allure.playwright.metrics.directory", "").trim();
+    static final int metricsInterval = getInt("allure.playwright.metrics.interval", 15);
+    static final boolean metricsJmx = getBoolean("allure.playwright.metrics.jmx", false);
+    static final boolean timeline = getBoolean("allure.playwright.timeline", false);
+    static final int timelineMaxEvents = getInt("allure.playwright.timeline.maxEvents", 100_000);
+    static final boolean stepSpill = getBoolean("allure.playwright.steps.spill", false);
+    static final String stepSpillDirectory = properties.getProperty("allure.playwright.steps.spill.directory", "").trim();
+    static final String browser = properties.getProperty("allure.playwright.browser", "chromium").trim();
+
+    // not final so tests in this package can change them; restore the read value afterwards
+    static volatile boolean asyncSteps = getBoolean("allure.playwright.steps.async", false);
+    static volatile Set<String> disabledSteps = getSet("allure.playwright.steps.disabled");
+    static volatile boolean collapseSteps = getBoolean("allure.playwright.steps.collapse", false);
+    static volatile double stepSampleRate = getDouble("allure.playwright.steps.sampleRate", 1);
+    static volatile boolean failureScreenshot = getBoolean("allure.playwright.failure.screenshot", false);
+    static volatile boolean failureDom = getBoolean("allure.playwright.failure.dom", false);
+    static volatile long failureBudget = getLong("allure.playwright.failure.budget", 100L * 1024 * 1024);
+
+    private Config() {
+    }
+
+    static boolean getBoolean(String name, boolean defaultValue) {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    static double getDouble(String name, double defaultValue) {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    static Set<String> getSet(String name) {
+        String value = properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> values = new HashSet<>();
+        for (String item : value.split(",")) {
+            values.add(item.trim());
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    static long getLong(String name, long defaultValue) {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    static int getInt(String name, int defaultValue) {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.uchagani.allure.playwright;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Driver round-trip latencies of reported steps, kept per protocol method for the whole JVM.
+ * <p>
+ * Allure has no run-level attachments, so when {@code allure.playwright.latency.summary} is enabled the summary is
+ * written at JVM shutdown as {@code playwright-latency-<uuid>.csv} next to the results in
+ * {@code allure.results.directory}, one file per JVM.
+ */
+final class DriverLatency {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DriverLatency.class);
+    static final String parameterName = "driver round-trip ms";
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    static {
+        if (Config.latencySummary) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DriverLatency::writeSummary, "allure-playwright-latency"));
+        }
+    }
+
+    private DriverLatency() {
+    }
+
+    static void record(String method, long nanos) {
+        LatencyHistogram histogram = histograms.get(method);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(method, m -> new LatencyHistogram());
+        }
+        histogram.recordNanos(nanos);
+    }
+
+    static Map<String, LatencyHistogram> histograms() {
+        return histograms;
+    }
+
+    static String format(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    static void writeSummary(Writer writer) throws IOException {
+        writer.write("method,count,p50 ms,p95 ms,p99 ms,max ms\n");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            writer.write(String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f%n", entry.getKey(), histogram.count(),
+                    histogram.percentileMicros(0.50) / 1000.0, histogram.percentileMicros(0.95) / 1000.0,
+                    histogram.percentileMicros(0.99) / 1000.0, histogram.maxMicros() / 1000.0));
+        }
+    }
+
+    private static void writeSummary() {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        Path directory = Paths.get(Config.resultsDirectory);
+        Path file = directory.resolve("playwright-latency-" + UUID.randomUUID() + ".csv");
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeSummary(writer);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not write driver latency summary to {}", file, e);
+        }
+    }
+}
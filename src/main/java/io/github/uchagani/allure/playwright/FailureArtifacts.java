@@ -0,0 +1,175 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.Frame;
+import com.microsoft.playwright.Page;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures a screenshot and, optionally, the DOM of the page behind a failed step when
+ * {@code allure.playwright.failure.screenshot} or {@code allure.playwright.failure.dom} is enabled.
+ * <p>
+ * Playwright objects may only be used from the thread driving them, so the capture itself runs on the failing thread.
+ * Writing the files is handed to a single daemon thread with a bounded queue; when the queue is full the failing thread
+ * writes the file itself. Identical captures are written once and shared by content hash, for the last 1024 distinct
+ * captures, and nothing more is written once {@code allure.playwright.failure.budget} bytes have been used in this JVM.
+ * Pending writes are finished at JVM shutdown.
+ */
+final class FailureArtifacts {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FailureArtifacts.class);
+    private static final long shutdownTimeoutSeconds = 30;
+    private static final int maxSharedSources = 1024;
+
+    private static final Map<String, String> sourcesByHash = Collections.synchronizedMap(new SourcesByHash());
+    private static final AtomicLong bytesUsed = new AtomicLong();
+    private static final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Config.failureQueueSize), runnable -> {
+        Thread thread = new Thread(runnable, "allure-playwright-failure-artifacts");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "allure-playwright-failure-artifacts-shutdown"));
+    }
+
+    private FailureArtifacts() {
+    }
+
+    static void capture(AllureLifecycle lifecycle, StepResult step, Object channelOwner) {
+        Page page = pageOf(channelOwner);
+        if (page == null || page.isClosed()) {
+            return;
+        }
+        // the capture calls are not steps of the test
+        if (Config.failureScreenshot) {
+            try {
+                ChannelOwnerAspect.runUnreported(() -> attach(lifecycle, step, "Screenshot", "image/png", ".png",
+                        page.screenshot(new Page.ScreenshotOptions().setTimeout(Config.failureCaptureTimeout))));
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not take a failure screenshot", e);
+            }
+        }
+        if (Config.failureDom) {
+            try {
+                ChannelOwnerAspect.runUnreported(() -> attach(lifecycle, step, "DOM", "text/html", ".html",
+                        page.content().getBytes(StandardCharsets.UTF_8)));
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not capture the DOM", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until the captures handed to the writer so far have been written.
+     */
+    static void flush() {
+        try {
+            writer.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Bytes of the budget used by the captures written so far in this JVM.
+     */
+    static long usedBudget() {
+        return bytesUsed.get();
+    }
+
+    private static Page pageOf(Object channelOwner) {
+        if (channelOwner instanceof Page) {
+            return (Page) channelOwner;
+        }
+        if (channelOwner instanceof Frame) {
+            return ((Frame) channelOwner).page();
+        }
+        return null;
+    }
+
+    private static void attach(AllureLifecycle lifecycle, StepResult step, String name, String type, String extension,
+                               byte[] content) {
+        String hash = sha256(content);
+        String source = sourcesByHash.get(hash);
+        if (source == null) {
+            if (bytesUsed.addAndGet(content.length) > Config.failureBudget) {
+                bytesUsed.addAndGet(-content.length);
+                LOGGER.debug("Failure artifact budget of {} bytes used up, skipping {}", Config.failureBudget, name);
+                return;
+            }
+            String newSource = StepIdGenerators.get().nextId() + "-attachment" + extension;
+            source = sourcesByHash.putIfAbsent(hash, newSource);
+            if (source == null) {
+                source = newSource;
+                writer.execute(() -> write(lifecycle, newSource, content));
+            } else {
+                bytesUsed.addAndGet(-content.length);
+            }
+        }
+        step.getAttachments().add(new Attachment().setName(name).setType(type).setSource(source));
+    }
+
+    private static void write(AllureLifecycle lifecycle, String source, byte[] content) {
+        try {
+            lifecycle.writeAttachment(source, new ByteArrayInputStream(content));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not write failure artifact {}", source, e);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sources of the most recently shared captures; older captures are written again if they repeat.
+     */
+    private static final class SourcesByHash extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private SourcesByHash() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxSharedSources;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Attaches the request and response bodies of {@code fetch} calls to their step when
+ * {@code allure.playwright.fetch.bodies} is enabled.
+ * <p>
+ * Bodies arrive from the driver as base64 or JSON strings inside the protocol message. They are decoded, truncated and
+ * optionally gzipped while Allure copies them into the attachment file, so no decoded copy of a body is ever held in
+ * memory.
+ */
+final class FetchBodyAttachments {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FetchBodyAttachments.class);
+    private static final MethodHandle sendMessage = findSendMessage();
+
+    private FetchBodyAttachments() {
+    }
+
+    private static MethodHandle findSendMessage() {
+        try {
+            Method method = Class.forName("com.microsoft.playwright.impl.ChannelOwner")
+                    .getDeclaredMethod("sendMessage", String.class, JsonObject.class);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.methodType(JsonElement.class, Object.class, String.class, JsonObject.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Playwright changed ChannelOwner; response bodies are then not attached.
+            return null;
+        }
+    }
+
+    static void attachRequest(AllureLifecycle lifecycle, StepResult step, JsonObject params) {
+        String contentType = contentType(params.get("headers"));
+        String postData = ProtocolSchema.string(params, "postData");
+        String jsonData = ProtocolSchema.string(params, "jsonData");
+        JsonElement formData = params.get("formData");
+        if (postData != null) {
+            attach(lifecycle, step, "Request body", contentType, decodeBase64(postData));
+        } else if (jsonData != null) {
+            attach(lifecycle, step, "Request body", "application/json", utf8(jsonData));
+        } else if (formData != null && !formData.isJsonNull()) {
+            attach(lifecycle, step, "Request form", "application/json", utf8(formData.toString()));
+        }
+    }
+
+    static void attachResponse(AllureLifecycle lifecycle, StepResult step, Object channelOwner, JsonElement result) {
+        if (sendMessage == null || result == null || !result.isJsonObject()) {
+            return;
+        }
+        JsonElement responseElement = result.getAsJsonObject().get("response");
+        if (responseElement == null || !responseElement.isJsonObject()) {
+            return;
+        }
+        JsonObject response = responseElement.getAsJsonObject();
+        JsonObject params = new JsonObject();
+        params.add("fetchUid", response.get("fetchUid"));
+        JsonElement body;
+        try {
+            body = (JsonElement) sendMessage.invokeExact(channelOwner, "fetchResponseBody", params);
+        } catch (Throwable t) {
+            LOGGER.warn("Could not read the response body of {}", response.get("url"), t);
+            return;
+        }
+        String binary = body != null && body.isJsonObject() ? ProtocolSchema.string(body.getAsJsonObject(), "binary") : null;
+        if (binary != null) {
+            attach(lifecycle, step, "Response body", contentType(response.get("headers")), decodeBase64(binary));
+        }
+    }
+
+    private static void attach(AllureLifecycle lifecycle, StepResult step, String name, String contentType,
+                               InputStream body) {
+        BoundedInputStream bounded = new BoundedInputStream(body, Config.fetchBodiesMaxSize);
+        InputStream content = bounded;
+        String type = contentType;
+        String extension = extension(contentType);
+        if (Config.fetchBodiesCompress && isCompressible(contentType)) {
+            content = new GzipInputStream(bounded);
+            type = "application/gzip";
+            extension = extension + ".gz";
+        }
+        String source = StepIdGenerators.get().nextId() + "-attachment" + extension;
+        try (InputStream stream = content) {
+            lifecycle.writeAttachment(source, stream);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not write {} attachment", name, e);
+            return;
+        }
+        if (bounded.truncated) {
+            name = name + " (truncated to " + Config.fetchBodiesMaxSize + " bytes)";
+        }
+        step.getAttachments().add(new Attachment().setName(name).setType(type).setSource(source));
+    }
+
+    private static String contentType(JsonElement headers) {
+        if (headers == null || !headers.isJsonArray()) {
+            return "application/octet-stream";
+        }
+        for (JsonElement header : (JsonArray) headers) {
+            if (!header.isJsonObject()) {
+                continue;
+            }
+            JsonObject nameValue = header.getAsJsonObject();
+            String value = ProtocolSchema.string(nameValue, "value");
+            if ("content-type".equalsIgnoreCase(ProtocolSchema.string(nameValue, "name")) && value != null) {
+                int parameters = value.indexOf(';');
+                return (parameters < 0 ? value : value.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return "application/octet-stream";
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text/") || contentType.endsWith("json") || contentType.endsWith("xml")
+                || contentType.endsWith("javascript") || contentType.equals("application/x-www-form-urlencoded");
+    }
+
+    private static String extension(String contentType) {
+        if (contentType.endsWith("json")) {
+            return ".json";
+        }
+        if (contentType.endsWith("xml")) {
+            return ".xml";
+        }
+        if (contentType.equals("text/html")) {
+            return ".html";
+        }
+        if (contentType.startsWith("text/") || contentType.equals("application/x-www-form-urlencoded")) {
+            return ".txt";
+        }
+        return ".bin";
+    }
+
+    private static InputStream decodeBase64(String base64) {
+        return Base64.getDecoder().wrap(new AsciiInputStream(base64));
+    }
+
+    private static InputStream utf8(String text) {
+        // JSON and form bodies are built by Playwright from Java strings, so they are already on the heap.
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the characters of an ASCII string, such as base64 data, as bytes without copying it.
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final String text;
+        private int position;
+
+        private AsciiInputStream(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? text.charAt(position++) & 0x7f : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= text.length()) {
+                return -1;
+            }
+            int count = Math.min(length, text.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) text.charAt(position++);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Stops after {@code limit} bytes and records whether anything was left.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+        private boolean truncated;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                truncated = truncated || in.read() >= 0;
+                return -1;
+            }
+            int count = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Gzips the wrapped stream while it is read: a fixed header, raw deflate data and a trailer that is only computed
+     * once the source has been consumed. The native memory of the deflater is released on {@link #close()}.
+     */
+    private static final class GzipInputStream extends SequenceInputStream {
+        private static final byte[] header = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+        private final Deflater deflater;
+
+        private GzipInputStream(InputStream in) {
+            this(new CheckedInputStream(in, new CRC32()), new long[1], new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+        }
+
+        private GzipInputStream(CheckedInputStream checked, long[] size, Deflater deflater) {
+            super(new ByteArrayInputStream(header), new SequenceInputStream(
+                    new DeflaterInputStream(new CountingInputStream(checked, size), deflater),
+                    new InputStream() {
+                        private InputStream trailer;
+
+                        @Override
+                        public int read() throws IOException {
+                            if (trailer == null) {
+                                long crc = checked.getChecksum().getValue();
+                                long length = size[0];
+                                trailer = new ByteArrayInputStream(new byte[]{
+                                        (byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24),
+                                        (byte) length, (byte) (length >> 8), (byte) (length >> 16), (byte) (length >> 24)});
+                            }
+                            return trailer.read();
+                        }
+                    }));
+            this.deflater = deflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends InputStream {
+        private final InputStream in;
+        private final long[] count;
+
+        private CountingInputStream(InputStream in, long[] count) {
+            this.in = in;
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = in.read();
+            if (value >= 0) {
+                count[0]++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                count[0] += read;
+            }
+            return read;
+        }
+    }
+}
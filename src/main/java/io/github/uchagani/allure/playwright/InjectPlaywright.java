@@ -0,0 +1,18 @@
+package io.github.uchagani.allure.playwright;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code Playwright}, {@code Browser}, {@code BrowserContext} or {@code Page} parameter of a test method or of
+ * a {@code @BeforeEach} or {@code @AfterEach} method to be resolved by {@link AllurePlaywrightExtension}. Parameters
+ * without it are left to other resolvers.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface InjectPlaywright {
+}
@@ -0,0 +1,126 @@
+package io.github.uchagani.allure.playwright;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of latencies in microseconds.
+ * <p>
+ * Values below 8 get a bucket each; every power of two above that is split into 8 linear sub-buckets, so a recorded
+ * value is off by at most 12.5%. Memory is fixed at 488 counters per stripe regardless of how many values are recorded.
+ * Threads record into one of up to 8 stripes, picked by thread id, so parallel tests rarely update the same counter.
+ */
+final class LatencyHistogram {
+    private static final int subBucketBits = 3;
+    private static final int subBuckets = 1 << subBucketBits;
+    private static final int bucketCount = (64 - subBucketBits) * subBuckets;
+    private static final int stripes = stripes(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicLongArray counts = new AtomicLongArray(stripes * bucketCount);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    private static int stripes(int processors) {
+        return Math.min(8, Integer.highestOneBit(Math.max(1, processors)));
+    }
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int stripe = (int) Thread.currentThread().getId() & (stripes - 1);
+        counts.incrementAndGet(stripe * bucketCount + bucketIndex(micros));
+        total.increment();
+        sum.add(micros);
+        long currentMax = max.get();
+        while (micros > currentMax && !max.compareAndSet(currentMax, micros)) {
+            currentMax = max.get();
+        }
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    long sumMicros() {
+        return sum.sum();
+    }
+
+    long maxMicros() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value in microseconds below which the given fraction of recorded values fall, reported as the middle
+     * of the bucket that contains it.
+     */
+    long percentileMicros(double fraction) {
+        long[] buckets = buckets();
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(bucketMiddle(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Returns how many recorded values fall at or below each of the given ascending bounds, in microseconds. Values
+     * are assigned by the middle of their bucket, so a count is off by the values within 12.5% of its bound.
+     */
+    long[] cumulativeCounts(long[] boundsMicros) {
+        long[] buckets = buckets();
+        long[] cumulative = new long[boundsMicros.length];
+        int bound = 0;
+        long seen = 0;
+        for (int i = 0; i < bucketCount && bound < boundsMicros.length; i++) {
+            while (bound < boundsMicros.length && bucketMiddle(i) > boundsMicros[bound]) {
+                cumulative[bound++] = seen;
+            }
+            seen += buckets[i];
+        }
+        while (bound < boundsMicros.length) {
+            cumulative[bound++] = seen;
+        }
+        return cumulative;
+    }
+
+    private long[] buckets() {
+        long[] buckets = new long[bucketCount];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] += counts.get(stripe * bucketCount + i);
+            }
+        }
+        return buckets;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < subBuckets) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - subBucketBits)) & (subBuckets - 1);
+        return (exponent - subBucketBits + 1) * subBuckets + subBucket;
+    }
+
+    static long bucketMiddle(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int exponent = index / subBuckets + subBucketBits - 1;
+        long width = 1L << (exponent - subBucketBits);
+        long lower = (subBuckets + index % subBuckets) * width;
+        return lower + width / 2;
+    }
+}
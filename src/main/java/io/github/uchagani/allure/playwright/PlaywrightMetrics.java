@@ -0,0 +1,267 @@
+package io.github.uchagani.allure.playwright;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Run-wide counters of the Playwright calls reported as steps: how often each protocol method was called, how long the
+ * driver took, how often it failed or timed out, and how many {@code APIResponse} assertions passed and failed.
+ * <p>
+ * Calls only add to striped counters and histograms, so threads do not wait for each other. When
+ * {@code allure.playwright.metrics.directory} is set the metrics are written there in the OpenMetrics text format
+ * every {@code allure.playwright.metrics.interval} seconds and at JVM shutdown, one file per JVM with a {@code jvm}
+ * label, so a scraper can sum the forks of a run. {@code allure.playwright.metrics.jmx} registers
+ * {@link PlaywrightMetricsMXBean}.
+ */
+public final class PlaywrightMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlaywrightMetrics.class);
+    static final String objectName = "io.github.uchagani.allure.playwright:type=Metrics";
+
+    private static final long[] bucketBoundsMicros = {1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000,
+            500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000, 30_000_000, 60_000_000, Long.MAX_VALUE};
+    private static final String[] bucketLabels = {"0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25",
+            "0.5", "1.0", "2.5", "5.0", "10.0", "30.0", "60.0", "+Inf"};
+
+    private static final Map<String, ActionCounters> actions = new ConcurrentHashMap<>();
+    private static final Map<String, AssertionCounters> assertions = new ConcurrentHashMap<>();
+
+    static {
+        if (!Config.metricsDirectory.isEmpty()) {
+            ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "allure-playwright-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writer.scheduleWithFixedDelay(PlaywrightMetrics::writeFile, Config.metricsInterval, Config.metricsInterval,
+                    TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                writer.shutdownNow();
+                writeFile();
+            }, "allure-playwright-metrics-shutdown"));
+        }
+        if (Config.metricsJmx) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new View(), new ObjectName(objectName));
+            } catch (JMException e) {
+                LOGGER.error("Could not register {}", objectName, e);
+            }
+        }
+    }
+
+    private PlaywrightMetrics() {
+    }
+
+    static void recordAction(String method, long nanos) {
+        DriverLatency.record(method, nanos);
+    }
+
+    static void recordActionFailure(String method, boolean timeout) {
+        ActionCounters counters = counters(actions, method, m -> new ActionCounters());
+        counters.failures.increment();
+        if (timeout) {
+            counters.timeouts.increment();
+        }
+    }
+
+    static void recordApiResponseAssertion(String assertion, boolean passed) {
+        AssertionCounters counters = counters(assertions, assertion, a -> new AssertionCounters());
+        (passed ? counters.passed : counters.failed).increment();
+    }
+
+    private static <T> T counters(Map<String, T> map, String name, Function<String, T> create) {
+        T counters = map.get(name);
+        return counters != null ? counters : map.computeIfAbsent(name, create);
+    }
+
+    static PlaywrightMetricsMXBean view() {
+        return new View();
+    }
+
+    /**
+     * Writes the current metrics in the OpenMetrics text format.
+     */
+    public static void writeOpenMetrics(Writer writer) throws IOException {
+        String jvmLabel = "jvm=\"" + escape(Jvm.name) + "\"";
+        Map<String, LatencyHistogram> histograms = new TreeMap<>(DriverLatency.histograms());
+
+        writer.write("# TYPE allure_playwright_action_duration_seconds histogram\n");
+        writer.write("# UNIT allure_playwright_action_duration_seconds seconds\n");
+        writer.write("# HELP allure_playwright_action_duration_seconds Driver round trip of Playwright calls reported as steps.\n");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String labels = "method=\"" + escape(entry.getKey()) + "\"," + jvmLabel;
+            LatencyHistogram histogram = entry.getValue();
+            long[] cumulative = histogram.cumulativeCounts(bucketBoundsMicros);
+            for (int i = 0; i < cumulative.length; i++) {
+                writer.write("allure_playwright_action_duration_seconds_bucket{" + labels + ",le=\"" + bucketLabels[i]
+                        + "\"} " + cumulative[i] + "\n");
+            }
+            writer.write("allure_playwright_action_duration_seconds_count{" + labels + "} "
+                    + cumulative[cumulative.length - 1] + "\n");
+            writer.write("allure_playwright_action_duration_seconds_sum{" + labels + "} "
+                    + String.format(Locale.ROOT, "%.6f", histogram.sumMicros() / 1_000_000.0) + "\n");
+        }
+
+        Map<String, ActionCounters> actionCounters = new TreeMap<>(actions);
+        writer.write("# TYPE allure_playwright_action_failures counter\n");
+        writer.write("# HELP allure_playwright_action_failures Playwright calls that threw or whose assertion failed.\n");
+        for (Map.Entry<String, ActionCounters> entry : actionCounters.entrySet()) {
+            writer.write("allure_playwright_action_failures_total{method=\"" + escape(entry.getKey()) + "\","
+                    + jvmLabel + "} " + entry.getValue().failures.sum() + "\n");
+        }
+        writer.write("# TYPE allure_playwright_action_timeouts counter\n");
+        writer.write("# HELP allure_playwright_action_timeouts Playwright calls that threw a TimeoutError.\n");
+        for (Map.Entry<String, ActionCounters> entry : actionCounters.entrySet()) {
+            writer.write("allure_playwright_action_timeouts_total{method=\"" + escape(entry.getKey()) + "\","
+                    + jvmLabel + "} " + entry.getValue().timeouts.sum() + "\n");
+        }
+
+        writer.write("# TYPE allure_playwright_api_response_assertions counter\n");
+        writer.write("# HELP allure_playwright_api_response_assertions APIResponse assertions by result.\n");
+        for (Map.Entry<String, AssertionCounters> entry : new TreeMap<>(assertions).entrySet()) {
+            String labels = "assertion=\"" + escape(entry.getKey()) + "\"," + jvmLabel;
+            writer.write("allure_playwright_api_response_assertions_total{" + labels + ",result=\"passed\"} "
+                    + entry.getValue().passed.sum() + "\n");
+            writer.write("allure_playwright_api_response_assertions_total{" + labels + ",result=\"failed\"} "
+                    + entry.getValue().failed.sum() + "\n");
+        }
+
+        writeCounter(writer, "allure_playwright_step_name_cache_hits", "Step names found in StepNameCache.",
+                jvmLabel, StepNameCache.hits());
+        writeCounter(writer, "allure_playwright_step_name_cache_misses", "Step names formatted and added to StepNameCache.",
+                jvmLabel, StepNameCache.misses());
+        writeCounter(writer, "allure_playwright_step_name_cache_evictions", "Step names evicted from StepNameCache.",
+                jvmLabel, StepNameCache.evictions());
+        writer.write("# EOF\n");
+    }
+
+    private static void writeCounter(Writer writer, String name, String help, String labels, long value)
+            throws IOException {
+        writer.write("# TYPE " + name + " counter\n");
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write(name + "_total{" + labels + "} " + value + "\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Replaces the file in one move, so a scraper never reads a partly written file.
+     */
+    private static void writeFile() {
+        Path directory = Paths.get(Config.metricsDirectory);
+        Path file = directory.resolve("allure-playwright-" + Jvm.name.replaceAll("[^A-Za-z0-9_.-]", "_") + ".prom");
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, ".allure-playwright-", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writeOpenMetrics(writer);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Could not write Playwright metrics to {}", file, e);
+        }
+    }
+
+    /**
+     * Looked up on first export only, so the management classes are not loaded when nothing is exported.
+     */
+    private static final class Jvm {
+        private static final String name = ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    private static final class ActionCounters {
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+    }
+
+    private static final class AssertionCounters {
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+
+    private static final class View implements PlaywrightMetricsMXBean {
+        @Override
+        public Map<String, Long> getActionCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            DriverLatency.histograms().forEach((method, histogram) -> counts.put(method, histogram.count()));
+            return counts;
+        }
+
+        @Override
+        public Map<String, Long> getActionFailures() {
+            Map<String, Long> failures = new TreeMap<>();
+            actions.forEach((method, counters) -> failures.put(method, counters.failures.sum()));
+            return failures;
+        }
+
+        @Override
+        public Map<String, Long> getActionTimeouts() {
+            Map<String, Long> timeouts = new TreeMap<>();
+            actions.forEach((method, counters) -> timeouts.put(method, counters.timeouts.sum()));
+            return timeouts;
+        }
+
+        @Override
+        public Map<String, Double> getActionP95Millis() {
+            Map<String, Double> p95 = new TreeMap<>();
+            DriverLatency.histograms().forEach((method, histogram) ->
+                    p95.put(method, histogram.percentileMicros(0.95) / 1000.0));
+            return p95;
+        }
+
+        @Override
+        public Map<String, Long> getApiResponseAssertionsPassed() {
+            Map<String, Long> passed = new TreeMap<>();
+            assertions.forEach((assertion, counters) -> passed.put(assertion, counters.passed.sum()));
+            return passed;
+        }
+
+        @Override
+        public Map<String, Long> getApiResponseAssertionsFailed() {
+            Map<String, Long> failed = new TreeMap<>();
+            assertions.forEach((assertion, counters) -> failed.put(assertion, counters.failed.sum()));
+            return failed;
+        }
+
+        @Override
+        public long getStepNameCacheHits() {
+            return StepNameCache.hits();
+        }
+
+        @Override
+        public long getStepNameCacheMisses() {
+            return StepNameCache.misses();
+        }
+
+        @Override
+        public long getStepNameCacheEvictions() {
+            return StepNameCache.evictions();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.uchagani.allure.playwright;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link PlaywrightMetrics}, registered as {@code io.github.uchagani.allure.playwright:type=Metrics} when
+ * {@code allure.playwright.metrics.jmx} is {@code true}. Maps are keyed by protocol method or assertion name.
+ */
+public interface PlaywrightMetricsMXBean {
+    Map<String, Long> getActionCounts();
+
+    Map<String, Long> getActionFailures();
+
+    Map<String, Long> getActionTimeouts();
+
+    Map<String, Double> getActionP95Millis();
+
+    Map<String, Long> getApiResponseAssertionsPassed();
+
+    Map<String, Long> getApiResponseAssertionsFailed();
+
+    long getStepNameCacheHits();
+
+    long getStepNameCacheMisses();
+
+    long getStepNameCacheEvictions();
+}
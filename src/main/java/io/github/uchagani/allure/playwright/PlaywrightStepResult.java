@@ -0,0 +1,129 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonObject;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.StepResult;
+
+/**
+ * {@link StepResult} for a Playwright protocol call whose name is rendered on first read, usually when the test result
+ * is written. Until then only references to the renderer and the params it reads are kept, see
+ * {@link StepNameRenderers#retainedParams}.
+ * <p>
+ * Calls that repeat the step are merged into it instead of being reported as steps of their own: identical calls when
+ * {@code allure.playwright.steps.collapse} is enabled, which show up as a count in the name, and retries of an
+ * {@code expect}, which show up as {@code attempts} and {@code total wait ms} parameters. The stop time, status and
+ * status details are those of the last call.
+ */
+final class PlaywrightStepResult extends StepResult {
+    private static final long serialVersionUID = 1L;
+
+    final transient String method;
+    private transient volatile StepNameRenderer renderer;
+    private transient volatile JsonObject params;
+    private final transient long firstStart;
+    private transient volatile int repeats = 1;
+    private transient volatile long lastRepeatStop;
+    private transient volatile Status lastStatus;
+    private transient volatile StatusDetails lastStatusDetails;
+    private transient Parameter attempts;
+    private transient Parameter totalWait;
+    private transient boolean spilled;
+
+    PlaywrightStepResult(String method, StepNameRenderer renderer, JsonObject params, long start) {
+        this.method = method;
+        this.renderer = renderer;
+        this.params = params;
+        this.firstStart = start;
+    }
+
+    @Override
+    public String getName() {
+        StepNameRenderer pendingRenderer = renderer;
+        JsonObject pendingParams = params;
+        if (pendingRenderer != null) {
+            String name;
+            try {
+                name = pendingRenderer.render(pendingParams);
+            } catch (RuntimeException e) {
+                name = method;
+            }
+            super.setName(name);
+            renderer = null;
+            params = null;
+        }
+        int count = repeats;
+        return count > 1 && attempts == null ? super.getName() + " (x" + count + ")" : super.getName();
+    }
+
+    @Override
+    public Long getStop() {
+        Long stop = super.getStop();
+        long repeatStop = lastRepeatStop;
+        return repeatStop != 0 && (stop == null || repeatStop > stop) ? Long.valueOf(repeatStop) : stop;
+    }
+
+    @Override
+    public Status getStatus() {
+        Status status = lastStatus;
+        return status != null ? status : super.getStatus();
+    }
+
+    @Override
+    public StatusDetails getStatusDetails() {
+        return lastStatus != null ? lastStatusDetails : super.getStatusDetails();
+    }
+
+    /**
+     * Counts one more identical call that ended at the given time. Only called by the thread that reported the step.
+     * Returns {@code false} if the step has already been written to the spill file, see {@link #spilled()}.
+     */
+    synchronized boolean addRepeat(long stop) {
+        if (spilled) {
+            return false;
+        }
+        repeats++;
+        lastRepeatStop = stop;
+        return true;
+    }
+
+    /**
+     * Counts one more attempt of a polling call, such as an {@code expect} retry, that ended at the given time with the
+     * given outcome. Only called by the thread that reported the step. Returns {@code false} if the step has already
+     * been written to the spill file.
+     */
+    synchronized boolean addAttempt(long stop, Status status, StatusDetails details) {
+        if (spilled) {
+            return false;
+        }
+        int count = ++repeats;
+        if (attempts == null) {
+            attempts = new Parameter().setName("attempts");
+            totalWait = new Parameter().setName("total wait ms");
+            getParameters().add(attempts);
+            getParameters().add(totalWait);
+        }
+        attempts.setValue(Integer.toString(count));
+        totalWait.setValue(Long.toString(stop - firstStart));
+        lastStatusDetails = details;
+        lastStatus = status;
+        lastRepeatStop = stop;
+        return true;
+    }
+
+    /**
+     * Called before the step is written to the spill file. Calls that would be merged into it afterwards are reported
+     * as steps of their own instead, as the written step can no longer change.
+     */
+    synchronized void spilled() {
+        spilled = true;
+    }
+
+    @Override
+    public StepResult setName(String name) {
+        renderer = null;
+        params = null;
+        return super.setName(name);
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Reads the params of the protocol methods that have built-in step names.
+ * <p>
+ * Every field is checked for presence and type before it is read, so params of a protocol version this library does
+ * not know yet give a shorter step name instead of an exception. Fields that were renamed between versions, such as the
+ * files of {@code setInputFiles}, are read under each of their names.
+ */
+final class ProtocolSchema {
+
+    private ProtocolSchema() {
+    }
+
+    /**
+     * Name of the first file passed to {@code setInputFiles}, or {@code null} if there is none.
+     */
+    static String firstFileName(JsonObject params) {
+        // sent as "payloads" instead of "files" by newer versions
+        JsonObject file = firstObject(params, "files");
+        if (file == null) {
+            file = firstObject(params, "payloads");
+        }
+        if (file != null) {
+            return string(file, "name");
+        }
+        JsonArray localPaths = array(params, "localPaths");
+        if (localPaths != null && localPaths.size() > 0 && isString(localPaths.get(0))) {
+            String path = localPaths.get(0).getAsString();
+            return path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+        }
+        return null;
+    }
+
+    /**
+     * The expected value of an {@code expect} call as text: the first expected text or pattern, the expected number,
+     * or a primitive expected value. Returns {@code null} if the call has none of them.
+     */
+    static String expected(JsonObject params) {
+        JsonObject text = firstObject(params, "expectedText");
+        if (text != null) {
+            String string = string(text, "string");
+            if (string != null) {
+                return string;
+            }
+            String regexSource = string(text, "regexSource");
+            if (regexSource != null) {
+                String flags = string(text, "regexFlags");
+                return "/" + regexSource + "/" + (flags == null ? "" : flags);
+            }
+            return null;
+        }
+        JsonElement number = params.get("expectedNumber");
+        if (number != null && number.isJsonPrimitive()) {
+            return number.getAsString();
+        }
+        JsonElement value = params.get("expectedValue");
+        if (value != null && value.isJsonObject()) {
+            // a serialized argument wraps the serialized value together with its handles
+            JsonElement wrapped = ((JsonObject) value).get("value");
+            return serializedPrimitive(wrapped != null && wrapped.isJsonObject() ? (JsonObject) wrapped : (JsonObject) value);
+        }
+        return null;
+    }
+
+    private static String serializedPrimitive(JsonObject value) {
+        for (String type : new String[]{"s", "n", "b", "d", "v"}) {
+            JsonElement element = value.get(type);
+            if (element != null && element.isJsonPrimitive()) {
+                return element.getAsString();
+            }
+        }
+        JsonElement regex = value.get("r");
+        if (regex != null && regex.isJsonObject()) {
+            String pattern = string((JsonObject) regex, "p");
+            String flags = string((JsonObject) regex, "f");
+            return pattern == null ? null : "/" + pattern + "/" + (flags == null ? "" : flags);
+        }
+        return null;
+    }
+
+    /**
+     * The string value of the given field, or {@code null} if it is missing or not a string.
+     */
+    static String string(JsonObject params, String field) {
+        JsonElement element = params.get(field);
+        return isString(element) ? element.getAsString() : null;
+    }
+
+    static boolean isTrue(JsonObject params, String field) {
+        JsonElement element = params.get(field);
+        return element != null && element.isJsonPrimitive() && ((JsonPrimitive) element).isBoolean()
+                && element.getAsBoolean();
+    }
+
+    private static boolean isString(JsonElement element) {
+        return element != null && element.isJsonPrimitive() && ((JsonPrimitive) element).isString();
+    }
+
+    private static JsonArray array(JsonObject params, String field) {
+        JsonElement element = params.get(field);
+        return element != null && element.isJsonArray() ? (JsonArray) element : null;
+    }
+
+    private static JsonObject firstObject(JsonObject params, String field) {
+        JsonArray array = array(params, field);
+        if (array == null || array.size() == 0 || !array.get(0).isJsonObject()) {
+            return null;
+        }
+        return (JsonObject) array.get(0);
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.uchagani.allure.playwright;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * Reflective access to {@code java.lang.ScopedValue}, which the library cannot reference directly because it is built
+ * for Java 8. Only the methods that are the same in the JDK 21 preview and the final JDK 25 API are used.
+ */
+final class ScopedBinding<T> {
+    private final Object scopedValue;
+    private final MethodHandle where;
+    private final MethodHandle run;
+    private final MethodHandle isBound;
+    private final MethodHandle get;
+
+    private ScopedBinding(Object scopedValue, MethodHandle where, MethodHandle run, MethodHandle isBound,
+                          MethodHandle get) {
+        this.scopedValue = scopedValue;
+        this.where = where;
+        this.run = run;
+        this.isBound = isBound;
+        this.get = get;
+    }
+
+    /**
+     * Returns a new scoped value, or {@code null} if this JVM does not provide a usable {@code ScopedValue}.
+     */
+    static <T> ScopedBinding<T> create() {
+        try {
+            Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+            Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Object scopedValue = lookup.findStatic(scopedValueClass, "newInstance", MethodType.methodType(scopedValueClass))
+                    .invoke();
+            MethodHandle where = lookup.findStatic(scopedValueClass, "where",
+                    MethodType.methodType(carrierClass, scopedValueClass, Object.class));
+            MethodHandle run = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class));
+            MethodHandle isBound = lookup.findVirtual(scopedValueClass, "isBound", MethodType.methodType(boolean.class));
+            MethodHandle get = lookup.findVirtual(scopedValueClass, "get", MethodType.methodType(Object.class));
+            ScopedBinding<T> binding = new ScopedBinding<>(scopedValue, where, run, isBound, get);
+            // preview builds throw here unless --enable-preview is set
+            run.invoke(where.invoke(scopedValue, Boolean.TRUE), (Runnable) () -> {
+            });
+            return binding;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    boolean isBound() {
+        try {
+            return (boolean) isBound.invoke(scopedValue);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T get() {
+        try {
+            return (T) get.invoke(scopedValue);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    <R> R call(T value, Callable<R> task) throws Exception {
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        Runnable op = () -> {
+            try {
+                result[0] = task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                failure[0] = e;
+            }
+        };
+        try {
+            run.invoke(where.invoke(scopedValue, value), op);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        @SuppressWarnings("unchecked")
+        R callResult = (R) result[0];
+        return callResult;
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.StepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Top-level steps of a test that are written to a temporary file once they are finished, so the heap only holds the
+ * steps that are still running. Installed as the steps of each test when {@code allure.playwright.steps.spill} is
+ * enabled.
+ * <p>
+ * A step is written when the next top-level step is added, together with all its nested steps. The list is not
+ * {@link java.util.RandomAccess}, so Allure writes the test result by iterating it, which reads the written steps back
+ * one at a time. Reading a written step by index reads the file up to it.
+ */
+final class SpilledSteps extends AbstractList<StepResult> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpilledSteps.class);
+    private static final Gson gson = new Gson();
+
+    private final List<StepResult> live = new ArrayList<>();
+    private Path file;
+    private JsonWriter writer;
+    private int spilled;
+    private boolean failed;
+
+    SpilledSteps(List<StepResult> steps) {
+        live.addAll(steps);
+    }
+
+    int spilledCount() {
+        return spilled;
+    }
+
+    @Override
+    public synchronized int size() {
+        return spilled + live.size();
+    }
+
+    @Override
+    public synchronized StepResult get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (index >= spilled) {
+            return live.get(index - spilled);
+        }
+        try (JsonReader reader = reader()) {
+            for (int i = 0; i < index; i++) {
+                reader.skipValue();
+            }
+            return gson.fromJson(reader, StepResult.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized StepResult set(int index, StepResult step) {
+        if (index < spilled) {
+            throw new UnsupportedOperationException("Step " + index + " has already been written to " + file);
+        }
+        return live.set(index - spilled, step);
+    }
+
+    @Override
+    public synchronized void add(int index, StepResult step) {
+        if (index < spilled) {
+            throw new UnsupportedOperationException("Step " + index + " has already been written to " + file);
+        }
+        if (index == size()) {
+            spillFinished();
+        }
+        live.add(index - spilled, step);
+        modCount++;
+    }
+
+    @Override
+    public synchronized Iterator<StepResult> iterator() {
+        List<StepResult> liveSteps = new ArrayList<>(live);
+        if (spilled == 0) {
+            return liveSteps.iterator();
+        }
+        try {
+            return new StepIterator(reader(), spilled, liveSteps);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the file once the test result has been written.
+     */
+    synchronized void delete() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete {}", file, e);
+        }
+        writer = null;
+        file = null;
+    }
+
+    /**
+     * Writes the finished steps at the start of the list. A step that is still running stops the spill, so the order
+     * of the steps is kept.
+     */
+    private void spillFinished() {
+        if (failed) {
+            return;
+        }
+        try {
+            while (!live.isEmpty() && live.get(0).getStage() == Stage.FINISHED) {
+                if (writer == null) {
+                    String directory = Config.stepSpillDirectory.isEmpty()
+                            ? System.getProperty("java.io.tmpdir") : Config.stepSpillDirectory;
+                    Files.createDirectories(Paths.get(directory));
+                    file = Files.createTempFile(Paths.get(directory), "allure-playwright-steps-", ".json");
+                    writer = new JsonWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+                    writer.setLenient(true);
+                }
+                StepResult step = live.get(0);
+                if (step instanceof PlaywrightStepResult) {
+                    ((PlaywrightStepResult) step).spilled();
+                }
+                gson.toJson(copy(step), StepResult.class, writer);
+                live.remove(0);
+                spilled++;
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            LOGGER.error("Could not write steps to {}; the remaining steps are kept in memory", file, e);
+        }
+    }
+
+    private JsonReader reader() throws IOException {
+        writer.flush();
+        JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Copies the step through its getters, so the values of subclasses such as {@link PlaywrightStepResult} that are
+     * computed on read are written.
+     */
+    private static StepResult copy(StepResult step) {
+        List<StepResult> steps = new ArrayList<>(step.getSteps().size());
+        for (StepResult child : step.getSteps()) {
+            steps.add(copy(child));
+        }
+        return new StepResult()
+                .setName(step.getName())
+                .setStatus(step.getStatus())
+                .setStatusDetails(step.getStatusDetails())
+                .setStage(step.getStage())
+                .setDescription(step.getDescription())
+                .setDescriptionHtml(step.getDescriptionHtml())
+                .setStart(step.getStart())
+                .setStop(step.getStop())
+                .setSteps(steps)
+                .setAttachments(step.getAttachments())
+                .setParameters(step.getParameters());
+    }
+
+    private static final class StepIterator implements Iterator<StepResult> {
+        private final JsonReader reader;
+        private final Iterator<StepResult> live;
+        private int remaining;
+
+        private StepIterator(JsonReader reader, int spilled, List<StepResult> live) {
+            this.reader = reader;
+            this.remaining = spilled;
+            this.live = live.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 || live.hasNext();
+        }
+
+        @Override
+        public StepResult next() {
+            if (remaining == 0) {
+                return live.next();
+            }
+            try {
+                if (reader.peek() == JsonToken.END_DOCUMENT) {
+                    throw new NoSuchElementException();
+                }
+                StepResult step = gson.fromJson(reader, StepResult.class);
+                if (--remaining == 0) {
+                    reader.close();
+                }
+                return step;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.uchagani.allure.playwright;
+
+/**
+ * Supplies the uuids of the steps reported for Playwright calls.
+ * <p>
+ * Implementations are called from every thread that drives Playwright and must be thread-safe. Ids must be unique
+ * across all JVMs that write into the same results directory. Install a custom generator through
+ * {@link StepIdGenerators#set(StepIdGenerator)}.
+ */
+@FunctionalInterface
+public interface StepIdGenerator {
+    String nextId();
+}
@@ -0,0 +1,76 @@
+package io.github.uchagani.allure.playwright;
+
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the {@link StepIdGenerator} used by the aspects.
+ * <p>
+ * The default is {@link #sequential()}. Set {@code allure.playwright.steps.idGenerator=random} to go back to
+ * {@link UUID#randomUUID()}, or to the class name of a {@link StepIdGenerator} with a public no-arg constructor.
+ */
+public final class StepIdGenerators {
+    private static volatile StepIdGenerator generator = fromConfig(Config.stepIdGenerator);
+
+    private StepIdGenerators() {
+    }
+
+    public static StepIdGenerator get() {
+        return generator;
+    }
+
+    public static void set(StepIdGenerator stepIdGenerator) {
+        generator = Objects.requireNonNull(stepIdGenerator, "stepIdGenerator");
+    }
+
+    /**
+     * Returns a generator that combines a random 64-bit prefix, drawn once per JVM, with a counter. Each thread takes
+     * blocks of the counter from a shared {@link AtomicLong}, so most calls touch no shared state at all. Ids have the
+     * usual uuid string form.
+     */
+    public static StepIdGenerator sequential() {
+        return Sequential.INSTANCE;
+    }
+
+    /**
+     * Returns a generator backed by {@link UUID#randomUUID()}.
+     */
+    public static StepIdGenerator random() {
+        return () -> UUID.randomUUID().toString();
+    }
+
+    static StepIdGenerator fromConfig(String value) {
+        if (value == null || value.isEmpty() || value.equals("sequential")) {
+            return sequential();
+        }
+        if (value.equals("random")) {
+            return random();
+        }
+        try {
+            return (StepIdGenerator) Class.forName(value).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid allure.playwright.steps.idGenerator: " + value, e);
+        }
+    }
+
+    private static final class Sequential implements StepIdGenerator {
+        private static final Sequential INSTANCE = new Sequential();
+        private static final int blockSize = 1024;
+
+        private final long prefix = new SecureRandom().nextLong();
+        private final AtomicLong nextBlock = new AtomicLong();
+        private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[2]);
+
+        @Override
+        public String nextId() {
+            long[] range = block.get();
+            if (range[0] == range[1]) {
+                range[0] = nextBlock.getAndAdd(blockSize);
+                range[1] = range[0] + blockSize;
+            }
+            return new UUID(prefix, range[0]++).toString();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.uchagani.allure.playwright;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Step names of the built-in renderers that only depend on the protocol method, the selector and the assertion
+ * expression, so page objects that act on the same elements over and over format each name once.
+ * <p>
+ * The cache holds at most {@code allure.playwright.steps.nameCacheSize} names and evicts the least recently used ones.
+ * It is split into segments that are locked separately, so concurrent tests rarely wait for each other. Setting the
+ * size to {@code 0} turns it off.
+ */
+public final class StepNameCache {
+    private static final int segmentCount = 16;
+    private static final Segment[] segments = new Segment[segmentCount];
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    static {
+        int segmentSize = (Config.stepNameCacheSize + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    private StepNameCache() {
+    }
+
+    static String get(String method, String selector, String expression, Supplier<String> name) {
+        if (Config.stepNameCacheSize <= 0) {
+            return name.get();
+        }
+        Key key = new Key(method, selector, expression);
+        Segment segment = segments[(key.hash ^ (key.hash >>> 16)) & (segmentCount - 1)];
+        String cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        String rendered = name.get();
+        synchronized (segment) {
+            segment.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    public static long hits() {
+        return hits.sum();
+    }
+
+    public static long misses() {
+        return misses.sum();
+    }
+
+    public static long evictions() {
+        return evictions.sum();
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Segment extends LinkedHashMap<Key, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        private final String method;
+        private final String selector;
+        private final String expression;
+        private final int hash;
+
+        private Key(String method, String selector, String expression) {
+            this.method = method;
+            this.selector = selector;
+            this.expression = expression;
+            this.hash = 31 * (31 * method.hashCode() + Objects.hashCode(selector)) + Objects.hashCode(expression);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return method.equals(other.method) && Objects.equals(selector, other.selector)
+                    && Objects.equals(expression, other.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Renders the Allure step name for a single Playwright protocol method.
+ * <p>
+ * Implementations receive the {@code params} object that is passed to {@code ChannelOwner.sendMessage} and must not
+ * modify it. Rendering is deferred until the step name is first read, usually when the test result is written, so it
+ * may run on another thread after the call has returned. Register custom renderers through {@link StepNameRenderers#register(String, StepNameRenderer)}.
+ */
+@FunctionalInterface
+public interface StepNameRenderer {
+    String render(JsonObject params);
+}
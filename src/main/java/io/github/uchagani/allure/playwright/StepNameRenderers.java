@@ -0,0 +1,229 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.uchagani.allure.playwright.Constants.*;
+
+/**
+ * Registry of the {@link StepNameRenderer}s used by {@link ChannelOwnerAspect}.
+ * <p>
+ * Only protocol methods that have a renderer registered are reported as steps. Built-in renderers for the methods
+ * listed in {@code allure.playwright.steps.disabled} are left out. The table is replaced on write and read
+ * without locking, so lookups on the {@code sendMessage} path cost a single hash map access.
+ */
+public final class StepNameRenderers {
+    private static final Map<String, StepNameRenderer> builtInRenderers;
+    private static final Map<String, List<String>> renderedFields = new HashMap<>();
+    private static volatile Map<String, StepNameRenderer> renderers;
+
+    static {
+        Map<String, StepNameRenderer> builtIn = new HashMap<>();
+        builtIn.put(checkMethodName, locator(checkStepPrefix));
+        builtIn.put(clickMethodName, locator(clickStepPrefix));
+        builtIn.put(dblclickMethodName, locator(dblclickStepPrefix));
+        builtIn.put(dragAndDropMethodName, StepNameRenderers::dragAndDrop);
+        builtIn.put(fillMethodName, StepNameRenderers::fill);
+        builtIn.put(focusMethodName, locator(focusStepPrefix));
+        builtIn.put(hoverMethodName, locator(hoverStepPrefix));
+        builtIn.put(pressMethodName, StepNameRenderers::press);
+        builtIn.put(selectOptionMethodName, locator(selectOptionStepPrefix));
+        builtIn.put(setInputFilesMethodName, StepNameRenderers::setInputFiles);
+        builtIn.put(tapMethodName, locator(tapStepPrefix));
+        builtIn.put(typeMethodName, StepNameRenderers::type);
+        builtIn.put(uncheckMethodName, locator(uncheckStepPrefix));
+        builtIn.put(goBackMethodName, params -> goBackStepPrefix);
+        builtIn.put(goForwardMethodName, params -> goForwardStepPrefix);
+        builtIn.put(closeMethodName, params -> closeStepPrefix);
+        builtIn.put(gotoMethodName, StepNameRenderers::navigation);
+        builtIn.put(expectMethodName, StepNameRenderers::assertion);
+        builtIn.put(fetchMethodName, StepNameRenderers::apiRequest);
+        builtInRenderers = builtIn;
+        reset();
+
+        List<String> selector = Arrays.asList("selector");
+        for (String method : Arrays.asList(checkMethodName, clickMethodName, dblclickMethodName, focusMethodName,
+                hoverMethodName, selectOptionMethodName, tapMethodName, uncheckMethodName)) {
+            renderedFields.put(method, selector);
+        }
+        renderedFields.put(dragAndDropMethodName, Arrays.asList("source", "target"));
+        renderedFields.put(fillMethodName, Arrays.asList("selector", "value"));
+        renderedFields.put(pressMethodName, Arrays.asList("selector", "key"));
+        renderedFields.put(setInputFilesMethodName, Arrays.asList("files", "payloads", "localPaths"));
+        renderedFields.put(typeMethodName, Arrays.asList("selector", "text"));
+        renderedFields.put(goBackMethodName, Arrays.asList());
+        renderedFields.put(goForwardMethodName, Arrays.asList());
+        renderedFields.put(closeMethodName, Arrays.asList());
+        renderedFields.put(gotoMethodName, Arrays.asList("url"));
+        renderedFields.put(expectMethodName, Arrays.asList("selector", "expression", "isNot", "expressionArg",
+                "expectedText", "expectedNumber", "expectedValue"));
+        renderedFields.put(fetchMethodName, Arrays.asList("method", "url"));
+    }
+
+    private StepNameRenderers() {
+    }
+
+    /**
+     * Returns the renderer for the given protocol method, or {@code null} if the method is not reported as a step.
+     */
+    public static StepNameRenderer get(String method) {
+        return renderers.get(method);
+    }
+
+    /**
+     * Reports the given protocol method (for example {@code waitForSelector}, {@code screenshot}, {@code evaluate} or
+     * {@code route}) as a step, replacing any renderer already registered for it.
+     */
+    public static synchronized void register(String method, StepNameRenderer renderer) {
+        Objects.requireNonNull(method, "method");
+        Objects.requireNonNull(renderer, "renderer");
+        Map<String, StepNameRenderer> copy = new HashMap<>(renderers);
+        copy.put(method, renderer);
+        renderers = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Restores the built-in renderers, except those of the methods in {@code allure.playwright.steps.disabled}, and
+     * removes all others.
+     */
+    static synchronized void reset() {
+        Map<String, StepNameRenderer> copy = new HashMap<>(builtInRenderers);
+        copy.keySet().removeAll(Config.disabledSteps);
+        renderers = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Stops reporting the given protocol method as a step.
+     */
+    public static synchronized void unregister(String method) {
+        Map<String, StepNameRenderer> copy = new HashMap<>(renderers);
+        copy.remove(method);
+        renderers = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * The params a step keeps until its name is rendered. For a built-in renderer only the fields it reads are kept,
+     * referenced without copying, and uploaded files only by their name, so request bodies and file buffers are not held
+     * until the test result is written. Other renderers keep all params.
+     */
+    static JsonObject retainedParams(String method, StepNameRenderer renderer, JsonObject params) {
+        List<String> fields = renderedFields.get(method);
+        if (fields == null || params == null || renderer != builtInRenderers.get(method)) {
+            return params;
+        }
+        JsonObject retained = new JsonObject();
+        for (String field : fields) {
+            JsonElement value = params.get(field);
+            if (value != null) {
+                retained.add(field, field.equals("files") || field.equals("payloads") ? firstFileName(value) : value);
+            }
+        }
+        return retained;
+    }
+
+    private static JsonArray firstFileName(JsonElement files) {
+        JsonArray names = new JsonArray();
+        if (files.isJsonArray() && files.getAsJsonArray().size() > 0 && files.getAsJsonArray().get(0).isJsonObject()) {
+            JsonObject name = new JsonObject();
+            JsonElement value = files.getAsJsonArray().get(0).getAsJsonObject().get("name");
+            if (value != null) {
+                name.add("name", value);
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Returns a renderer that appends the {@code selector} param to the given prefix. Names are cached in
+     * {@link StepNameCache}.
+     */
+    public static StepNameRenderer locator(String prefix) {
+        return params -> {
+            String selector = ProtocolSchema.string(params, "selector");
+            if (selector == null) {
+                return prefix.trim();
+            }
+            return StepNameCache.get(prefix, selector, null,
+                    () -> prefix + (selector.equals(":root") ? "page" : selector));
+        };
+    }
+
+    private static String assertion(JsonObject params) {
+        String selector = ProtocolSchema.string(params, "selector");
+        String expression = ProtocolSchema.string(params, "expression");
+        boolean isNot = ProtocolSchema.isTrue(params, "isNot");
+        // the attribute or CSS property name of toHaveAttribute, toHaveCSS and toHaveJSProperty
+        String expressionArg = ProtocolSchema.string(params, "expressionArg");
+        String expected = ProtocolSchema.expected(params);
+        String key = expression;
+        if (isNot || expressionArg != null) {
+            key = (isNot ? "!" : "") + expression + (expressionArg == null ? "" : " " + expressionArg);
+        }
+        String name = StepNameCache.get(expectMethodName, selector, key,
+                () -> assertionName(selector, expression, isNot, expressionArg));
+        return expected == null ? name : name + ": " + expected;
+    }
+
+    private static String assertionName(String selector, String expression, boolean isNot, String expressionArg) {
+        StringBuilder name = new StringBuilder("Expect");
+        if (selector != null) {
+            name.append(' ').append(selector);
+        }
+        if (expression != null) {
+            String words = expression.replace('.', ' ');
+            if (isNot) {
+                words = words.startsWith("to ") ? "to not " + words.substring(3) : "not " + words;
+            }
+            name.append(' ').append(words);
+        }
+        if (expressionArg != null) {
+            name.append(' ').append(expressionArg);
+        }
+        return name.toString();
+    }
+
+    private static String apiRequest(JsonObject params) {
+        return orEmpty(ProtocolSchema.string(params, "method")) + " " + orEmpty(ProtocolSchema.string(params, "url"));
+    }
+
+    private static String navigation(JsonObject params) {
+        return gotoStepPrefix + orEmpty(ProtocolSchema.string(params, "url"));
+    }
+
+    private static String dragAndDrop(JsonObject params) {
+        return "Drag " + orEmpty(ProtocolSchema.string(params, "source"))
+                + " to " + orEmpty(ProtocolSchema.string(params, "target"));
+    }
+
+    private static String fill(JsonObject params) {
+        return "Fill " + orEmpty(ProtocolSchema.string(params, "selector"))
+                + " with " + orEmpty(ProtocolSchema.string(params, "value"));
+    }
+
+    private static String press(JsonObject params) {
+        return "Press key(s) " + orEmpty(ProtocolSchema.string(params, "key"))
+                + " on " + orEmpty(ProtocolSchema.string(params, "selector"));
+    }
+
+    private static String setInputFiles(JsonObject params) {
+        return setInputFilesStepPrefix + orEmpty(ProtocolSchema.firstFileName(params));
+    }
+
+    private static String type(JsonObject params) {
+        return "Type " + orEmpty(ProtocolSchema.string(params, "text"))
+                + " on " + orEmpty(ProtocolSchema.string(params, "selector"));
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import io.qameta.allure.model.Parameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.github.uchagani.allure.playwright.Constants.*;
+
+/**
+ * Turns the params of a protocol call into step parameters.
+ * <p>
+ * Built-in methods only report the fields that describe the action, such as the selector, key, url or file names.
+ * Other methods report their params as JSON. Binary content, such as file buffers and request bodies, is reported by
+ * its size, and nothing longer than {@code allure.playwright.steps.parameterMaxLength} characters is rendered, so a
+ * large payload is never copied into a step.
+ */
+final class StepParameters {
+    private static final Map<String, List<String>> fieldsByMethod = new HashMap<>();
+    private static final Set<String> binaryFields = new HashSet<>(Arrays.asList("buffer", "binary", "postData"));
+    private static final String truncated = "...";
+
+    static {
+        List<String> selector = Arrays.asList("selector");
+        for (String method : Arrays.asList(checkMethodName, clickMethodName, dblclickMethodName, focusMethodName,
+                hoverMethodName, tapMethodName, uncheckMethodName)) {
+            fieldsByMethod.put(method, selector);
+        }
+        fieldsByMethod.put(fillMethodName, Arrays.asList("selector", "value"));
+        fieldsByMethod.put(typeMethodName, Arrays.asList("selector", "text"));
+        fieldsByMethod.put(pressMethodName, Arrays.asList("selector", "key"));
+        fieldsByMethod.put(selectOptionMethodName, Arrays.asList("selector", "options"));
+        fieldsByMethod.put(setInputFilesMethodName, Arrays.asList("selector", "files", "payloads", "localPaths"));
+        fieldsByMethod.put(dragAndDropMethodName, Arrays.asList("source", "target"));
+        fieldsByMethod.put(goBackMethodName, Arrays.asList());
+        fieldsByMethod.put(goForwardMethodName, Arrays.asList());
+        fieldsByMethod.put(closeMethodName, Arrays.asList());
+        fieldsByMethod.put(gotoMethodName, Arrays.asList("url"));
+        fieldsByMethod.put(expectMethodName, Arrays.asList("selector", "expression", "isNot", "expectedText",
+                "expectedValue", "expressionArg"));
+        fieldsByMethod.put(fetchMethodName, Arrays.asList("method", "url", "postData", "jsonData", "formData",
+                "multipartData"));
+    }
+
+    private StepParameters() {
+    }
+
+    static List<Parameter> extract(String method, JsonObject params) {
+        List<String> fields = fieldsByMethod.get(method);
+        if (fields == null) {
+            // room for the round-trip parameter added when the step stops
+            List<Parameter> parameters = new ArrayList<>(2);
+            parameters.add(parameter("params", render(null, params)));
+            return parameters;
+        }
+        List<Parameter> parameters = new ArrayList<>(fields.size() + 1);
+        for (String field : fields) {
+            JsonElement value = params.get(field);
+            if (value != null && !value.isJsonNull()) {
+                boolean isFiles = field.equals("files") || field.equals("payloads");
+                parameters.add(parameter(field, isFiles ? files(value) : render(field, value)));
+            }
+        }
+        return parameters;
+    }
+
+    private static Parameter parameter(String name, String value) {
+        return new Parameter().setName(name).setValue(value);
+    }
+
+    /**
+     * Renders the uploaded files as their names and sizes, without decoding their content.
+     */
+    private static String files(JsonElement files) {
+        if (!files.isJsonArray()) {
+            return render("files", files);
+        }
+        StringBuilder out = new StringBuilder();
+        for (JsonElement file : (JsonArray) files) {
+            if (out.length() > Config.stepParameterMaxLength) {
+                break;
+            }
+            if (out.length() > 0) {
+                out.append(", ");
+            }
+            JsonElement name = file.isJsonObject() ? file.getAsJsonObject().get("name") : null;
+            out.append(name != null && name.isJsonPrimitive() ? name.getAsString() : "file");
+            JsonElement buffer = file.isJsonObject() ? file.getAsJsonObject().get("buffer") : null;
+            if (buffer != null && buffer.isJsonPrimitive()) {
+                out.append(" (").append(decodedSize(buffer.getAsString())).append(" bytes)");
+            }
+        }
+        return limit(out);
+    }
+
+    private static String render(String name, JsonElement value) {
+        if (name != null && value.isJsonPrimitive() && ((JsonPrimitive) value).isString()
+                && !binaryFields.contains(name)) {
+            return cap(value.getAsString());
+        }
+        StringBuilder out = new StringBuilder();
+        append(out, name, value);
+        return limit(out);
+    }
+
+    private static String limit(StringBuilder out) {
+        if (out.length() > Config.stepParameterMaxLength) {
+            out.setLength(Config.stepParameterMaxLength);
+            out.append(truncated);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends the value as JSON, stopping once the limit is reached so large params are never rendered in full.
+     */
+    private static void append(StringBuilder out, String name, JsonElement value) {
+        int limit = Config.stepParameterMaxLength;
+        if (out.length() > limit) {
+            return;
+        }
+        if (value.isJsonObject()) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, JsonElement> entry : value.getAsJsonObject().entrySet()) {
+                if (out.length() > limit) {
+                    return;
+                }
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                string(out, entry.getKey(), entry.getKey().length());
+                out.append(':');
+                append(out, entry.getKey(), entry.getValue());
+            }
+            out.append('}');
+        } else if (value.isJsonArray()) {
+            out.append('[');
+            boolean first = true;
+            for (JsonElement element : (JsonArray) value) {
+                if (out.length() > limit) {
+                    return;
+                }
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                append(out, name, element);
+            }
+            out.append(']');
+        } else if (value.isJsonPrimitive() && ((JsonPrimitive) value).isString()) {
+            String string = value.getAsString();
+            if (name != null && binaryFields.contains(name)) {
+                out.append('<').append(decodedSize(string)).append(" bytes>");
+            } else {
+                string(out, string, Math.min(string.length(), limit - out.length() + 1));
+            }
+        } else {
+            out.append(value.isJsonNull() ? "null" : value.getAsString());
+        }
+    }
+
+    /**
+     * Appends the first {@code length} characters of the value as a JSON string.
+     */
+    private static void string(StringBuilder out, String value, int length) {
+        out.append('"');
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static String cap(String value) {
+        int limit = Config.stepParameterMaxLength;
+        return value.length() <= limit ? value : value.substring(0, limit) + truncated;
+    }
+
+    /**
+     * Number of bytes encoded by a base64 string.
+     */
+    private static long decodedSize(String base64) {
+        int length = base64.length();
+        int padding = 0;
+        while (padding < 2 && length - padding > 0 && base64.charAt(length - padding - 1) == '=') {
+            padding++;
+        }
+        return (long) length * 3 / 4 - padding;
+    }
+}
@@ -0,0 +1,215 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonObject;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.TestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Records when each Playwright call of a test started and ended and attaches them to the test as a trace in the Chrome
+ * trace-event format, which opens in Perfetto or {@code chrome://tracing}. Enabled by {@code allure.playwright.timeline}.
+ * <p>
+ * Calls are recorded by the thread that runs the test, from {@code beforeTestStart} to {@code beforeTestStop}, into
+ * arrays of primitives that are reused for the next test; calls made on other threads are not included. The trace is
+ * encoded one event at a time while Allure copies the attachment.
+ */
+final class Timeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Timeline.class);
+    private static final ThreadLocal<Timeline> timelines = ThreadLocal.withInitial(Timeline::new);
+
+    private boolean recording;
+    private long testStartNanos;
+    private int size;
+    private int dropped;
+    private String[] methods = new String[64];
+    private String[] details = new String[64];
+    private long[] nanos = new long[128];
+    private boolean[] failed = new boolean[64];
+
+    private Timeline() {
+    }
+
+    static void testStarted() {
+        Timeline timeline = timelines.get();
+        timeline.recording = true;
+        timeline.testStartNanos = System.nanoTime();
+        timeline.size = 0;
+        timeline.dropped = 0;
+    }
+
+    static void record(String method, JsonObject params, long startNanos, long endNanos, boolean failed) {
+        Timeline timeline = timelines.get();
+        if (timeline.recording) {
+            timeline.add(method, detail(params), startNanos, endNanos, failed);
+        }
+    }
+
+    static void testStopping(TestResult result) {
+        Timeline timeline = timelines.get();
+        if (!timeline.recording) {
+            return;
+        }
+        timeline.recording = false;
+        long testStopNanos = System.nanoTime();
+        String source = StepIdGenerators.get().nextId() + "-attachment.json";
+        AllureLifecycle lifecycle = AllurePlaywrightContext.getLifecycle();
+        try {
+            lifecycle.writeAttachment(source, timeline.new TraceInputStream(result.getName(), testStopNanos));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not write the Playwright timeline of {}", result.getName(), e);
+            return;
+        } finally {
+            // the strings are only referenced, so release them with the test
+            Arrays.fill(timeline.details, 0, timeline.size, null);
+            timeline.size = 0;
+        }
+        result.getAttachments().add(new Attachment().setName("Playwright timeline").setType("application/json")
+                .setSource(source));
+    }
+
+    /**
+     * The selector or url of the call, referenced without copying.
+     */
+    private static String detail(JsonObject params) {
+        String selector = ProtocolSchema.string(params, "selector");
+        return selector != null ? selector : ProtocolSchema.string(params, "url");
+    }
+
+    private void add(String method, String detail, long startNanos, long endNanos, boolean failed) {
+        if (size == Config.timelineMaxEvents) {
+            dropped++;
+            return;
+        }
+        if (size == methods.length) {
+            int capacity = Math.min(size * 2, Math.max(Config.timelineMaxEvents, 1));
+            methods = Arrays.copyOf(methods, capacity);
+            details = Arrays.copyOf(details, capacity);
+            nanos = Arrays.copyOf(nanos, capacity * 2);
+            this.failed = Arrays.copyOf(this.failed, capacity);
+        }
+        methods[size] = method;
+        details[size] = detail;
+        nanos[2 * size] = startNanos;
+        nanos[2 * size + 1] = endNanos;
+        this.failed[size] = failed;
+        size++;
+    }
+
+    /**
+     * Encodes the trace one event at a time, so only the event being read is held as bytes.
+     */
+    private final class TraceInputStream extends InputStream {
+        private final String testName;
+        private final long testStopNanos;
+        private final long threadId = Thread.currentThread().getId();
+        private final String threadName = Thread.currentThread().getName();
+        private final StringBuilder event = new StringBuilder(256);
+        private byte[] chunk;
+        private int position;
+        private int next = -2;
+
+        private TraceInputStream(String testName, long testStopNanos) {
+            this.testName = testName;
+            this.testStopNanos = testStopNanos;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() {
+            while (chunk == null || position == chunk.length) {
+                if (next > size) {
+                    return false;
+                }
+                event.setLength(0);
+                if (next == -2) {
+                    event.append("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+                            .append(threadId).append(",\"args\":{\"name\":");
+                    string(threadName);
+                    event.append("}}");
+                } else if (next == -1) {
+                    event.append(",\n{\"name\":");
+                    string(testName == null ? "test" : testName);
+                    event.append(",\"cat\":\"test\",\"ph\":\"X\",\"ts\":0,\"dur\":");
+                    micros(testStopNanos - testStartNanos);
+                    event.append(",\"pid\":1,\"tid\":").append(threadId);
+                    if (dropped > 0) {
+                        event.append(",\"args\":{\"dropped events\":").append(dropped).append('}');
+                    }
+                    event.append('}');
+                } else if (next < size) {
+                    event.append(",\n{\"name\":");
+                    String detail = details[next];
+                    string(detail == null ? methods[next] : methods[next] + " " + detail);
+                    event.append(",\"cat\":");
+                    string(methods[next]);
+                    event.append(",\"ph\":\"X\",\"ts\":");
+                    micros(nanos[2 * next] - testStartNanos);
+                    event.append(",\"dur\":");
+                    micros(nanos[2 * next + 1] - nanos[2 * next]);
+                    event.append(",\"pid\":1,\"tid\":").append(threadId).append(",\"args\":{\"status\":\"")
+                            .append(failed[next] ? "failed" : "passed").append("\"}}");
+                } else {
+                    event.append("\n]}\n");
+                }
+                next++;
+                chunk = event.toString().getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return true;
+        }
+
+        private void micros(long nanos) {
+            long value = Math.max(0, nanos);
+            event.append(value / 1000).append('.');
+            long fraction = value % 1000;
+            if (fraction < 100) {
+                event.append('0');
+            }
+            if (fraction < 10) {
+                event.append('0');
+            }
+            event.append(fraction);
+        }
+
+        private void string(String value) {
+            event.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    event.append('\\').append(c);
+                } else if (c < 0x20) {
+                    event.append(String.format("\\u%04x", (int) c));
+                } else {
+                    event.append(c);
+                }
+            }
+            event.append('"');
+        }
+    }
+}
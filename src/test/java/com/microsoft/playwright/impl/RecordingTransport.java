@@ -0,0 +1,65 @@
+package com.microsoft.playwright.impl;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Transport} that passes every message through to another transport and keeps a copy, so the session can be
+ * saved for {@link ReplayTransport}. Messages are saved one per line as {@code {"out": ...}} or {@code {"in": ...}} in
+ * the order the {@link Connection} sent and consumed them. The call metadata of outgoing messages holds stack traces
+ * of the test code and is not saved.
+ */
+public class RecordingTransport implements Transport {
+    private final Transport transport;
+    private final List<JsonObject> messages = new ArrayList<>();
+
+    public RecordingTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public void send(JsonObject message) {
+        JsonObject copy = message.deepCopy();
+        copy.remove("metadata");
+        add("out", copy);
+        transport.send(message);
+    }
+
+    @Override
+    public JsonObject poll(Duration timeout) {
+        JsonObject message = transport.poll(timeout);
+        if (message != null) {
+            add("in", message.deepCopy());
+        }
+        return message;
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+
+    public synchronized void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (JsonObject message : messages) {
+                writer.write(message.toString());
+                writer.write('\n');
+            }
+        }
+    }
+
+    private synchronized void add(String direction, JsonObject message) {
+        JsonObject entry = new JsonObject();
+        entry.add(direction, message);
+        messages.add(entry);
+    }
+}
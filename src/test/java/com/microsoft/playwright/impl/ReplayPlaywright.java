@@ -0,0 +1,83 @@
+package com.microsoft.playwright.impl;
+
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Playwright} connected to a {@link ReplayTransport}, or to a driver process through a
+ * {@link RecordingTransport} to create a recording. Close it instead of the {@link Playwright} instance.
+ */
+public final class ReplayPlaywright implements AutoCloseable {
+    private final PlaywrightImpl playwright;
+    private final Process driverProcess;
+    private final RecordingTransport recording;
+    private final Path recordingFile;
+
+    private ReplayPlaywright(PlaywrightImpl playwright, Process driverProcess, RecordingTransport recording,
+                             Path recordingFile) {
+        this.playwright = playwright;
+        this.driverProcess = driverProcess;
+        this.recording = recording;
+        this.recordingFile = recordingFile;
+    }
+
+    /**
+     * Plays back the recording saved as the given class path resource.
+     */
+    public static ReplayPlaywright replay(String resource) {
+        try (InputStream recording = ReplayPlaywright.class.getResourceAsStream(resource)) {
+            if (recording == null) {
+                throw new IllegalArgumentException("No recording " + resource);
+            }
+            Connection connection = new Connection(new ReplayTransport(ReplayTransport.load(recording)));
+            return new ReplayPlaywright(connection.initializePlaywright(), null, null, null);
+        } catch (IOException e) {
+            throw new PlaywrightException("Failed to read recording " + resource, e);
+        }
+    }
+
+    /**
+     * Starts a driver process like {@link Playwright#create()} and saves the session to the given file on close.
+     */
+    public static ReplayPlaywright record(Path file) {
+        try {
+            Path driver = Driver.ensureDriverInstalled(Collections.emptyMap(), false);
+            ProcessBuilder processBuilder = new ProcessBuilder(driver.toString(), "run-driver");
+            processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            Driver.setRequiredEnvironmentVariables(processBuilder);
+            Process process = processBuilder.start();
+            RecordingTransport recording = new RecordingTransport(
+                    new PipeTransport(process.getInputStream(), process.getOutputStream()));
+            Connection connection = new Connection(recording);
+            return new ReplayPlaywright(connection.initializePlaywright(), process, recording, file);
+        } catch (IOException e) {
+            throw new PlaywrightException("Failed to launch driver", e);
+        }
+    }
+
+    public Playwright playwright() {
+        return playwright;
+    }
+
+    @Override
+    public void close() {
+        try {
+            playwright.connection.close();
+            if (driverProcess != null) {
+                driverProcess.waitFor(30, TimeUnit.SECONDS);
+                recording.save(recordingFile);
+            }
+        } catch (IOException e) {
+            throw new PlaywrightException("Failed to close", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PlaywrightException("Operation interrupted", e);
+        }
+    }
+}
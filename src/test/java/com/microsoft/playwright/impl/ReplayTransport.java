@@ -0,0 +1,97 @@
+package com.microsoft.playwright.impl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * {@link Transport} that plays back a session saved by {@link RecordingTransport} without a driver process.
+ * <p>
+ * Every message the {@link Connection} sends must have the object guid and method of the next recorded outgoing
+ * message; its parameters are not compared. Sending it releases the recorded incoming messages up to the next outgoing
+ * one, with response ids mapped to the ids of the messages actually sent. A connection that waits for a message the
+ * recording does not have fails instead of waiting for ever.
+ */
+public class ReplayTransport implements Transport {
+    private final List<JsonObject> recording;
+    private final Queue<JsonObject> incoming = new ArrayDeque<>();
+    private final Map<Integer, Integer> ids = new HashMap<>();
+    private int position;
+
+    public ReplayTransport(List<JsonObject> recording) {
+        this.recording = recording;
+        release();
+    }
+
+    public static List<JsonObject> load(InputStream recording) throws IOException {
+        List<JsonObject> messages = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(recording, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    messages.add(JsonParser.parseString(line).getAsJsonObject());
+                }
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public void send(JsonObject message) {
+        if (position >= recording.size() || !recording.get(position).has("out")) {
+            throw new IllegalStateException("Unexpected message after the end of the recording: " + describe(message));
+        }
+        JsonObject expected = recording.get(position++).getAsJsonObject("out");
+        if (!same(expected, message, "guid") || !same(expected, message, "method")) {
+            throw new IllegalStateException("Expected " + describe(expected) + " but was " + describe(message));
+        }
+        ids.put(expected.get("id").getAsInt(), message.get("id").getAsInt());
+        release();
+    }
+
+    @Override
+    public JsonObject poll(Duration timeout) {
+        JsonObject message = incoming.poll();
+        if (message == null) {
+            throw new IllegalStateException("The recording has no further message for the connection, "
+                    + (recording.size() - position) + " recorded messages left");
+        }
+        return message;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void release() {
+        while (position < recording.size() && recording.get(position).has("in")) {
+            JsonObject next = recording.get(position++).getAsJsonObject("in").deepCopy();
+            if (next.has("id")) {
+                next.addProperty("id", ids.get(next.get("id").getAsInt()));
+            }
+            incoming.add(next);
+        }
+    }
+
+    private static boolean same(JsonObject expected, JsonObject actual, String property) {
+        JsonElement value = expected.get(property);
+        return value != null && value.equals(actual.get(property));
+    }
+
+    private static String describe(JsonObject message) {
+        return message.get("guid") + "." + message.get("method");
+    }
+}
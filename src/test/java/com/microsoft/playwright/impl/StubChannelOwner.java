@@ -0,0 +1,36 @@
+package com.microsoft.playwright.impl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * {@link ChannelOwner} backed by a {@link StubTransport}. Calls to {@link #send(String, JsonObject)} go through the
+ * real {@code ChannelOwner.sendMessage} join point, so they are advised exactly like calls made by Playwright itself.
+ */
+public class StubChannelOwner extends ChannelOwner {
+    private StubChannelOwner(Connection connection) {
+        super(connection, "Stub", "stub@1");
+    }
+
+    public static StubChannelOwner create() {
+        return new StubChannelOwner(new Connection(new StubTransport()));
+    }
+
+    /**
+     * Returns a channel owner whose messages all return the given result.
+     */
+    public static StubChannelOwner create(JsonObject result) {
+        return new StubChannelOwner(new Connection(new StubTransport(result)));
+    }
+
+    /**
+     * Returns a channel owner whose messages all fail if {@code failing} is set, see {@link StubTransport}.
+     */
+    public static StubChannelOwner create(boolean failing) {
+        return new StubChannelOwner(new Connection(new StubTransport(failing)));
+    }
+
+    public JsonElement send(String method, JsonObject params) {
+        return sendMessage(method, params);
+    }
+}
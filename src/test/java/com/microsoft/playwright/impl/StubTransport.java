@@ -0,0 +1,63 @@
+package com.microsoft.playwright.impl;
+
+import com.google.gson.JsonObject;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * In-memory {@link Transport} that answers every message with the same result, empty by default, or with a
+ * {@code TimeoutError} if it was created as failing, so {@link Connection} can be driven without a Playwright driver
+ * process.
+ * <p>
+ * Also used by the benchmarks module, which gets it from the test jar.
+ */
+public class StubTransport implements Transport {
+    private final Queue<JsonObject> incoming = new ArrayDeque<>();
+    private final JsonObject result;
+    private final JsonObject error;
+
+    public StubTransport() {
+        this(new JsonObject());
+    }
+
+    public StubTransport(JsonObject result) {
+        this.result = result;
+        this.error = null;
+    }
+
+    public StubTransport(boolean failing) {
+        this.result = new JsonObject();
+        if (failing) {
+            JsonObject details = new JsonObject();
+            details.addProperty("name", "TimeoutError");
+            details.addProperty("message", "Timeout 30000ms exceeded.");
+            error = new JsonObject();
+            error.add("error", details);
+        } else {
+            error = null;
+        }
+    }
+
+    @Override
+    public void send(JsonObject message) {
+        JsonObject response = new JsonObject();
+        response.add("id", message.get("id"));
+        if (error == null) {
+            response.add("result", result.deepCopy());
+        } else {
+            response.add("error", error);
+        }
+        incoming.add(response);
+    }
+
+    @Override
+    public JsonObject poll(Duration timeout) {
+        return incoming.poll();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.uchagani.allure.playwright;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AllurePlaywrightContextTests {
+
+    @Test
+    void overrideIsRestoredTest() {
+        AllureLifecycle lifecycle = new AllureLifecycle();
+        AllurePlaywrightContext.runWithLifecycle(lifecycle,
+                () -> assertThat(AllurePlaywrightContext.getLifecycle()).isSameAs(lifecycle));
+        assertThat(AllurePlaywrightContext.getLifecycle()).isSameAs(Allure.getLifecycle());
+    }
+
+    @Test
+    void overrideIsNotInheritedTest() throws InterruptedException {
+        AllureLifecycle lifecycle = new AllureLifecycle();
+        AtomicReference<AllureLifecycle> childLifecycle = new AtomicReference<>();
+        AllurePlaywrightContext.setLifecycle(lifecycle);
+        try {
+            Thread child = new Thread(() -> childLifecycle.set(AllurePlaywrightContext.getLifecycle()));
+            child.start();
+            child.join();
+        } finally {
+            AllurePlaywrightContext.clearLifecycle();
+        }
+        assertThat(childLifecycle.get()).isSameAs(Allure.getLifecycle());
+    }
+}
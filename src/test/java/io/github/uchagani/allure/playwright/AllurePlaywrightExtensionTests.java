@@ -0,0 +1,43 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Execution(ExecutionMode.SAME_THREAD)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AllurePlaywrightExtensionTests {
+    @RegisterExtension
+    static final AllurePlaywrightExtension playwrightExtension = new AllurePlaywrightExtension();
+
+    private static Browser firstBrowser;
+    private static BrowserContext firstContext;
+
+    @Test
+    @Order(1)
+    void providesPageOfNewContextTest(@InjectPlaywright Browser browser, @InjectPlaywright BrowserContext context,
+                                      @InjectPlaywright Page page) {
+        firstBrowser = browser;
+        firstContext = context;
+        assertThat(page.context()).isSameAs(context);
+        assertThat(browser.contexts()).containsExactly(context);
+    }
+
+    @Test
+    @Order(2)
+    void reusesBrowserAndClosesPreviousContextTest(@InjectPlaywright Browser browser,
+                                                   @InjectPlaywright BrowserContext context) {
+        assertThat(browser).isSameAs(firstBrowser);
+        assertThat(context).isNotSameAs(firstContext);
+        assertThat(browser.contexts()).containsExactly(context);
+    }
+}
@@ -11,7 +11,6 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import static com.microsoft.playwright.assertions.PlaywrightAssertions.assertThat;
-import static io.qameta.allure.test.RunUtils.runWithinTestContext;
 
 public class AssertTests extends TestBase {
 
@@ -34,10 +33,8 @@ public class AssertTests extends TestBase {
 
     @Test
     void isOKAssertTest_Pass() {
-        AllureResults results = runWithinTestContext(() -> {
-            APIResponse response = page.request().get("https://playwright.dev");
-            assertThat(response).isOK();
-        }, APIResponseAssertionsImplAspect::setLifecycle);
+        APIResponse response = page.request().get("https://playwright.dev");
+        AllureResults results = runTest(() -> assertThat(response).isOK());
 
         TestResult testResult = results.getTestResults().get(0);
         Assertions.assertThat(testResult.getSteps()).flatExtracting(StepResult::getName).containsExactly("Expect APIResponse to be OK");
@@ -46,10 +43,8 @@ public class AssertTests extends TestBase {
 
     @Test
     void isOKAssertTest_Fail() {
-        AllureResults results = runWithinTestContext(() -> {
-            APIResponse response = page.request().get("https://dummy.restapiexample.com/api/v1/foo");
-            assertThat(response).isOK();
-        }, APIResponseAssertionsImplAspect::setLifecycle);
+        APIResponse response = page.request().get("https://dummy.restapiexample.com/api/v1/foo");
+        AllureResults results = runTest(() -> assertThat(response).isOK());
 
         TestResult testResult = results.getTestResults().get(0);
         Assertions.assertThat(testResult.getStatus()).isEqualTo(Status.FAILED);
@@ -59,10 +54,8 @@ public class AssertTests extends TestBase {
 
     @Test
     void notIsOKAssertTest_Pass() {
-        AllureResults results = runWithinTestContext(() -> {
-            APIResponse response = page.request().get("https://dummy.restapiexample.com/api/v1/foo");
-            assertThat(response).not().isOK();
-        }, APIResponseAssertionsImplAspect::setLifecycle);
+        APIResponse response = page.request().get("https://dummy.restapiexample.com/api/v1/foo");
+        AllureResults results = runTest(() -> assertThat(response).not().isOK());
 
         TestResult testResult = results.getTestResults().get(0);
         Assertions.assertThat(testResult.getSteps()).flatExtracting(StepResult::getName).containsExactly("Expect APIResponse to not be OK");
@@ -71,10 +64,8 @@ public class AssertTests extends TestBase {
 
     @Test
     void notIsOKAssertTest_Fail() {
-        AllureResults results = runWithinTestContext(() -> {
-            APIResponse response = page.request().get("https://playwright.dev");
-            assertThat(response).not().isOK();
-        }, APIResponseAssertionsImplAspect::setLifecycle);
+        APIResponse response = page.request().get("https://playwright.dev");
+        AllureResults results = runTest(() -> assertThat(response).not().isOK());
 
         TestResult testResult = results.getTestResults().get(0);
         Assertions.assertThat(testResult.getStatus()).isEqualTo(Status.FAILED);
@@ -0,0 +1,151 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.test.AllureResults;
+import io.qameta.allure.test.AllureResultsWriterStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.qameta.allure.test.RunUtils.runWithinTestContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// changes Config settings that every test reads
+@Isolated
+public class AsyncStepWriterTests {
+    private boolean asyncSteps;
+
+    @BeforeEach
+    void enableAsyncSteps() {
+        asyncSteps = Config.asyncSteps;
+        Config.asyncSteps = true;
+    }
+
+    @AfterEach
+    void restoreConfig() {
+        Config.asyncSteps = asyncSteps;
+    }
+
+    @Test
+    void stepsAreAppliedBeforeTheTestStopsTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        List<String> expected = new ArrayList<>();
+        AllureResults results = runWithinTestContext(() -> {
+            for (int i = 0; i < 1000; i++) {
+                channel.send("click", selector("#" + i));
+                expected.add("Click #" + i);
+            }
+        }, AllurePlaywrightContext::setLifecycle);
+
+        List<StepResult> steps = results.getTestResults().get(0).getSteps();
+        assertThat(steps).extracting(StepResult::getName).containsExactlyElementsOf(expected);
+        assertThat(steps).extracting(StepResult::getStage).containsOnly(Stage.FINISHED);
+        assertThat(steps).extracting(StepResult::getStatus).containsOnly(Status.PASSED);
+    }
+
+    @Test
+    void stepsAreNestedAndOrderedAroundOtherStepsTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        AllureResults results = runWithinTestContext(() -> {
+            channel.send("click", selector("#a"));
+            Allure.step("outer", () -> {
+                channel.send("click", selector("#b"));
+                Allure.step("inner");
+                channel.send("click", selector("#c"));
+            });
+            channel.send("click", selector("#d"));
+        }, AllurePlaywrightContext::setLifecycle);
+
+        List<StepResult> steps = results.getTestResults().get(0).getSteps();
+        assertThat(steps).extracting(StepResult::getName).containsExactly("Click #a", "outer", "Click #d");
+        assertThat(steps.get(1).getSteps()).extracting(StepResult::getName)
+                .containsExactly("Click #b", "inner", "Click #c");
+    }
+
+    @Test
+    void stepsOfAFixtureAreAddedToTheFixtureTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        AllureResultsWriterStub writer = new AllureResultsWriterStub();
+        AllureLifecycle lifecycle = new AllureLifecycle(writer);
+        String container = UUID.randomUUID().toString();
+        String fixture = UUID.randomUUID().toString();
+        lifecycle.startTestContainer(new TestResultContainer().setUuid(container));
+        lifecycle.startPrepareFixture(container, fixture, new FixtureResult().setName("set up"));
+        AllurePlaywrightContext.runWithLifecycle(lifecycle, () -> {
+            for (int i = 0; i < 100; i++) {
+                channel.send("click", selector("#" + i));
+            }
+        });
+        lifecycle.stopFixture(fixture);
+        lifecycle.stopTestContainer(container);
+        lifecycle.writeTestContainer(container);
+
+        List<StepResult> steps = writer.getTestResultContainers().get(0).getBefores().get(0).getSteps();
+        assertThat(steps).hasSize(100);
+        assertThat(steps.get(99).getName()).isEqualTo("Click #99");
+    }
+
+    @Test
+    void callersBlockWhileTheBufferIsFullTest() throws InterruptedException {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StepResult blocking = new StepResult() {
+            @Override
+            public StepResult setStatus(Status status) {
+                applying.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.setStatus(status);
+            }
+        };
+        AllureLifecycle lifecycle = new AllureLifecycle(new AllureResultsWriterStub());
+        List<StepResult> queued = new ArrayList<>();
+        for (int i = 0; i <= Config.asyncStepsBufferSize; i++) {
+            queued.add(new StepResult());
+        }
+        Thread producer = new Thread(() -> queued.forEach(step ->
+                AsyncStepWriter.stopStep(lifecycle, UUID.randomUUID().toString(), step, Status.PASSED, null)));
+        try {
+            AsyncStepWriter.stopStep(lifecycle, UUID.randomUUID().toString(), blocking, Status.PASSED, null);
+            assertThat(applying.await(10, TimeUnit.SECONDS)).isTrue();
+            producer.start();
+            // one more event than the buffer holds, so the producer waits for the writer thread
+            while (producer.getState() != Thread.State.WAITING) {
+                assertThat(producer.isAlive()).isTrue();
+                Thread.sleep(10);
+            }
+            assertThat(queued.get(queued.size() - 1).getStage()).isNull();
+        } finally {
+            release.countDown();
+        }
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        AsyncStepWriter.flush();
+
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(queued).extracting(StepResult::getStage).containsOnly(Stage.FINISHED);
+    }
+
+    private static JsonObject selector(String selector) {
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", selector);
+        return params;
+    }
+}
@@ -0,0 +1,246 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static io.qameta.allure.test.RunUtils.runWithinTestContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// changes Config settings that every test reads
+@Isolated
+public class ChannelOwnerAspectTests {
+
+    @Test
+    void unreportedCallsAreNotStepsTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        AllureResults results = runWithinTestContext(() -> {
+            ChannelOwnerAspect.runUnreported(() -> channel.send("close", new JsonObject()));
+            channel.send("close", new JsonObject());
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(results.getTestResults().get(0).getSteps()).extracting(StepResult::getName)
+                .containsExactly("Close page");
+    }
+
+    @Test
+    void identicalPassingAssertionsAreSeparateStepsTest() {
+        StubChannelOwner channel = StubChannelOwner.create(matches(true));
+        AllureResults results = runWithinTestContext(() -> {
+            channel.send("expect", expectParams());
+            channel.send("expect", expectParams());
+        }, AllurePlaywrightContext::setLifecycle);
+
+        List<StepResult> steps = results.getTestResults().get(0).getSteps();
+        assertThat(steps).hasSize(2);
+        assertThat(steps).extracting(StepResult::getStatus).containsExactly(Status.PASSED, Status.PASSED);
+        assertThat(steps).flatExtracting(StepResult::getParameters).extracting(Parameter::getName)
+                .doesNotContain("attempts");
+    }
+
+    @Test
+    void retriesOfAFailedAssertionAreOneStepTest() {
+        StubChannelOwner channel = StubChannelOwner.create(matches(false));
+        AllureResults results = runWithinTestContext(() -> {
+            channel.send("expect", expectParams());
+            channel.send("expect", expectParams());
+        }, AllurePlaywrightContext::setLifecycle);
+
+        List<StepResult> steps = results.getTestResults().get(0).getSteps();
+        assertThat(steps).hasSize(1);
+        assertThat(steps.get(0).getStatus()).isEqualTo(Status.FAILED);
+        assertThat(steps.get(0).getParameters()).filteredOn(parameter -> parameter.getName().equals("attempts"))
+                .extracting(Parameter::getValue).containsExactly("2");
+    }
+
+    @Test
+    void failedAssertionHasStatusDetailsTest() {
+        JsonObject result = matches(false);
+        JsonArray log = new JsonArray();
+        log.add("waiting for selector \"#total\"");
+        result.add("log", log);
+        StubChannelOwner channel = StubChannelOwner.create(result);
+        AllureResults results = runWithinTestContext(() -> channel.send("expect", expectParams()),
+                AllurePlaywrightContext::setLifecycle);
+
+        StepResult step = results.getTestResults().get(0).getSteps().get(0);
+        assertThat(step.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(step.getStatusDetails().getMessage()).isEqualTo(step.getName() + " failed");
+        assertThat(step.getStatusDetails().getTrace()).isEqualTo("Call log:\n  waiting for selector \"#total\"");
+    }
+
+    @Test
+    void nestedUnreportedCallDoesNotEndTheOuterStepTest() {
+        ChannelOwnerAspect aspect = new ChannelOwnerAspect();
+        JsonObject outer = new JsonObject();
+        outer.addProperty("selector", "#outer");
+        JsonObject inner = new JsonObject();
+        inner.addProperty("selector", "#inner");
+        AllureResults results = runWithinTestContext(() -> {
+            aspect.beforeActionMethods("click", outer);
+            ChannelOwnerAspect.runUnreported(() -> {
+                aspect.beforeActionMethods("click", inner);
+                aspect.stepFailed("click", inner, null, new IllegalStateException("inner"));
+            });
+            aspect.stepStop("click", outer, null, new JsonObject());
+        }, AllurePlaywrightContext::setLifecycle);
+
+        List<StepResult> steps = results.getTestResults().get(0).getSteps();
+        assertThat(steps).extracting(StepResult::getName).containsExactly("Click #outer");
+        assertThat(steps.get(0).getStatus()).isEqualTo(Status.PASSED);
+    }
+
+    @Test
+    void sampledOutStepsAreReportedOnlyWhenTheyFailTest() {
+        StubChannelOwner passing = StubChannelOwner.create();
+        StubChannelOwner failing = StubChannelOwner.create(true);
+        double sampleRate = Config.stepSampleRate;
+        Config.stepSampleRate = 0;
+        try {
+            AllureResults results = runWithinTestContext(() -> {
+                passing.send("click", selector("#passed"));
+                try {
+                    failing.send("click", selector("#failed"));
+                } catch (RuntimeException expected) {
+                    // reported as a broken step
+                }
+            }, AllurePlaywrightContext::setLifecycle);
+
+            List<StepResult> steps = results.getTestResults().get(0).getSteps();
+            assertThat(steps).extracting(StepResult::getName).containsExactly("Click #failed");
+            assertThat(steps.get(0).getStatus()).isEqualTo(Status.BROKEN);
+        } finally {
+            Config.stepSampleRate = sampleRate;
+        }
+    }
+
+    @Test
+    void disabledMethodsAreNotAdvisedTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        Set<String> disabledSteps = Config.disabledSteps;
+        Config.disabledSteps = Collections.singleton("click");
+        StepNameRenderers.reset();
+        try {
+            AllureResults results = runWithinTestContext(() -> {
+                channel.send("click", selector("#disabled"));
+                channel.send("hover", selector("#enabled"));
+            }, AllurePlaywrightContext::setLifecycle);
+
+            assertThat(StepNameRenderers.get("click")).isNull();
+            assertThat(results.getTestResults().get(0).getSteps()).extracting(StepResult::getName)
+                    .containsExactly("Hover over #enabled");
+        } finally {
+            Config.disabledSteps = disabledSteps;
+            StepNameRenderers.reset();
+        }
+    }
+
+    @Test
+    void identicalCallsAreCollapsedWithTheirCountTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        boolean collapseSteps = Config.collapseSteps;
+        Config.collapseSteps = true;
+        try {
+            AllureResults results = runWithinTestContext(() -> {
+                channel.send("click", selector("#b"));
+                channel.send("click", selector("#b"));
+                channel.send("click", selector("#b"));
+                channel.send("click", selector("#c"));
+                channel.send("click", selector("#b"));
+            }, AllurePlaywrightContext::setLifecycle);
+
+            assertThat(results.getTestResults().get(0).getSteps()).extracting(StepResult::getName)
+                    .containsExactly("Click #b (x3)", "Click #c", "Click #b");
+        } finally {
+            Config.collapseSteps = collapseSteps;
+        }
+    }
+
+    @Test
+    void callsAreNotCollapsedAcrossOtherStepsTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        boolean collapseSteps = Config.collapseSteps;
+        Config.collapseSteps = true;
+        try {
+            AllureResults results = runWithinTestContext(() -> {
+                channel.send("click", selector("#b"));
+                Allure.step("log in between");
+                channel.send("click", selector("#b"));
+                channel.send("click", selector("#b"));
+            }, AllurePlaywrightContext::setLifecycle);
+
+            assertThat(results.getTestResults().get(0).getSteps()).extracting(StepResult::getName)
+                    .containsExactly("Click #b", "log in between", "Click #b (x2)");
+        } finally {
+            Config.collapseSteps = collapseSteps;
+        }
+    }
+
+    @Test
+    void callsAreNotMergedIntoSpilledStepsTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        boolean collapseSteps = Config.collapseSteps;
+        Config.collapseSteps = true;
+        List<String> names = new ArrayList<>();
+        int[] spilledCount = new int[1];
+        try {
+            runWithinTestContext(() -> {
+                SpilledSteps steps = new SpilledSteps(new ArrayList<>());
+                AllurePlaywrightContext.getLifecycle().updateTestCase(test -> test.setSteps(steps));
+                channel.send("click", selector("#b"));
+                // another thread adds a step, which writes the step the next call of this thread would be merged into
+                Runnable clickC = () -> channel.send("click", selector("#c"));
+                Thread other = new Thread(AllurePlaywrightContext.wrap(clickC));
+                other.start();
+                try {
+                    other.join();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                channel.send("click", selector("#b"));
+                channel.send("click", selector("#d"));
+                // read before the listener deletes the spill file
+                spilledCount[0] = steps.spilledCount();
+                steps.forEach(step -> names.add(step.getName()));
+            }, AllurePlaywrightContext::setLifecycle);
+
+            assertThat(spilledCount[0]).isEqualTo(3);
+            assertThat(names).containsExactly("Click #b", "Click #c", "Click #b", "Click #d");
+        } finally {
+            Config.collapseSteps = collapseSteps;
+        }
+    }
+
+    private static JsonObject selector(String selector) {
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", selector);
+        return params;
+    }
+
+    private static JsonObject expectParams() {
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", "#total");
+        params.addProperty("expression", "to.be.visible");
+        params.addProperty("isNot", false);
+        params.addProperty("timeout", 5000);
+        return params;
+    }
+
+    private static JsonObject matches(boolean matches) {
+        JsonObject result = new JsonObject();
+        result.addProperty("matches", matches);
+        return result;
+    }
+}
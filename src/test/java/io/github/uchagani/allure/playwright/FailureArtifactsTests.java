@@ -0,0 +1,212 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.Frame;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.qameta.allure.test.RunUtils.runWithinTestContext;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// changes Config settings and uses the failure budget of the JVM
+@Isolated
+public class FailureArtifactsTests {
+    private boolean failureScreenshot;
+    private boolean failureDom;
+    private long failureBudget;
+
+    @BeforeEach
+    void saveConfig() {
+        failureScreenshot = Config.failureScreenshot;
+        failureDom = Config.failureDom;
+        failureBudget = Config.failureBudget;
+        Config.failureScreenshot = true;
+        Config.failureDom = false;
+        Config.failureBudget = Long.MAX_VALUE;
+    }
+
+    @AfterEach
+    void restoreConfig() {
+        Config.failureScreenshot = failureScreenshot;
+        Config.failureDom = failureDom;
+        Config.failureBudget = failureBudget;
+    }
+
+    @Test
+    void identicalScreenshotsAreWrittenOnceTest() {
+        Page page = page(unique(), null);
+        StepResult first = new StepResult();
+        StepResult second = new StepResult();
+
+        AllureResults results = runWithinTestContext(() -> {
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), first, page);
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), second, page);
+            FailureArtifacts.flush();
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(first.getAttachments()).extracting(Attachment::getName).containsExactly("Screenshot");
+        assertThat(second.getAttachments()).extracting(Attachment::getSource)
+                .containsExactly(first.getAttachments().get(0).getSource());
+        assertThat(results.getAttachments()).hasSize(1);
+    }
+
+    @Test
+    void capturesPastTheBudgetAreSkippedTest() {
+        byte[] screenshot = unique();
+        Config.failureBudget = FailureArtifacts.usedBudget() + screenshot.length;
+        StepResult first = new StepResult();
+        StepResult other = new StepResult();
+        StepResult repeated = new StepResult();
+
+        AllureResults results = runWithinTestContext(() -> {
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), first, page(screenshot, null));
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), other, page(unique(), null));
+            // shared with the first capture, so it does not count against the budget
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), repeated, page(screenshot, null));
+            FailureArtifacts.flush();
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(first.getAttachments()).hasSize(1);
+        assertThat(other.getAttachments()).isEmpty();
+        assertThat(repeated.getAttachments()).hasSize(1);
+        assertThat(results.getAttachments()).hasSize(1);
+    }
+
+    @Test
+    void frameIsCapturedThroughItsPageTest() {
+        Config.failureScreenshot = false;
+        Config.failureDom = true;
+        String html = "<html><body>" + UUID.randomUUID() + "</body></html>";
+        Frame frame = proxy(Frame.class, (method, args) -> method.equals("page") ? page(unique(), html) : null);
+        StepResult step = new StepResult();
+
+        AllureResults results = runWithinTestContext(() -> {
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), step, frame);
+            FailureArtifacts.flush();
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(step.getAttachments()).extracting(Attachment::getName, Attachment::getType)
+                .containsExactly(tuple("DOM", "text/html"));
+        byte[] written = results.getAttachments().get(step.getAttachments().get(0).getSource());
+        assertThat(new String(written, StandardCharsets.UTF_8)).isEqualTo(html);
+    }
+
+    @Test
+    void captureCallsAreNotStepsTest() {
+        StubChannelOwner channel = StubChannelOwner.create();
+        byte[] screenshot = unique();
+        Page page = proxy(Page.class, (method, args) -> {
+            if (method.equals("screenshot")) {
+                JsonObject params = new JsonObject();
+                params.addProperty("selector", ":root");
+                channel.send("click", params);
+                return screenshot;
+            }
+            return method.equals("isClosed") ? Boolean.FALSE : null;
+        });
+        StepResult step = new StepResult();
+
+        AllureResults results = runWithinTestContext(() -> {
+            FailureArtifacts.capture(AllurePlaywrightContext.getLifecycle(), step, page);
+            FailureArtifacts.flush();
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(step.getAttachments()).hasSize(1);
+        assertThat(results.getTestResults().get(0).getSteps()).isEmpty();
+    }
+
+    @Test
+    void failingThreadWritesWhenTheQueueIsFullTest() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, String> writtenBy = new ConcurrentHashMap<>();
+        AllureLifecycle lifecycle = new AllureLifecycle(new AllureResultsWriter() {
+            @Override
+            public void write(TestResult testResult) {
+            }
+
+            @Override
+            public void write(TestResultContainer testResultContainer) {
+            }
+
+            @Override
+            public void write(String source, InputStream attachment) {
+                writtenBy.put(source, Thread.currentThread().getName());
+                if (writing.getCount() > 0) {
+                    writing.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        String caller = Thread.currentThread().getName();
+        StepResult blocking = new StepResult();
+        StepResult overflowing = new StepResult();
+        try {
+            FailureArtifacts.capture(lifecycle, blocking, page(unique(), null));
+            assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < Config.failureQueueSize; i++) {
+                FailureArtifacts.capture(lifecycle, new StepResult(), page(unique(), null));
+            }
+            FailureArtifacts.capture(lifecycle, overflowing, page(unique(), null));
+            assertThat(writtenBy.get(overflowing.getAttachments().get(0).getSource())).isEqualTo(caller);
+        } finally {
+            release.countDown();
+        }
+        FailureArtifacts.flush();
+        assertThat(writtenBy.get(blocking.getAttachments().get(0).getSource())).isNotEqualTo(caller);
+        assertThat(writtenBy).hasSize(Config.failureQueueSize + 2);
+    }
+
+    private static byte[] unique() {
+        return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Page page(byte[] screenshot, String html) {
+        return proxy(Page.class, (method, args) -> {
+            switch (method) {
+                case "screenshot":
+                    return screenshot;
+                case "content":
+                    return html;
+                case "isClosed":
+                    return Boolean.FALSE;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+}
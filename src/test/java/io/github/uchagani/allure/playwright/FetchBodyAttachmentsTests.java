@@ -0,0 +1,62 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.qameta.allure.test.RunUtils.runWithinTestContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FetchBodyAttachmentsTests {
+
+    @Test
+    void requestBodyIsAttachedTest() {
+        JsonObject params = new JsonObject();
+        params.add("headers", headers("Content-Type", "application/json; charset=utf-8"));
+        params.addProperty("jsonData", "{\"id\":1}");
+        StepResult step = new StepResult();
+
+        AllureResults results = runWithinTestContext(
+                () -> FetchBodyAttachments.attachRequest(AllurePlaywrightContext.getLifecycle(), step, params),
+                AllurePlaywrightContext::setLifecycle);
+
+        assertThat(step.getAttachments()).extracting(Attachment::getName).containsExactly("Request body");
+        byte[] body = results.getAttachments().get(step.getAttachments().get(0).getSource());
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void malformedParamsAreIgnoredTest() {
+        JsonObject params = new JsonObject();
+        JsonArray headers = headers("Content-Type", null);
+        headers.add("content-type");
+        params.add("headers", headers);
+        params.addProperty("postData", 42);
+        StepResult step = new StepResult();
+
+        runWithinTestContext(() -> {
+            FetchBodyAttachments.attachRequest(AllurePlaywrightContext.getLifecycle(), step, params);
+            JsonObject result = new JsonObject();
+            result.addProperty("response", "not an object");
+            FetchBodyAttachments.attachResponse(AllurePlaywrightContext.getLifecycle(), step, new Object(), result);
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(step.getAttachments()).isEmpty();
+    }
+
+    private static JsonArray headers(String name, String value) {
+        JsonObject header = new JsonObject();
+        header.addProperty("name", name);
+        if (value != null) {
+            header.addProperty("value", value);
+        }
+        JsonArray headers = new JsonArray();
+        headers.add(header);
+        return headers;
+    }
+}
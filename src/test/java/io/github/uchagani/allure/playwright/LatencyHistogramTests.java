@@ -0,0 +1,30 @@
+package io.github.uchagani.allure.playwright;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTests {
+
+    @Test
+    void percentilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.recordNanos(micros * 1000);
+        }
+        assertThat(histogram.count()).isEqualTo(10_000);
+        assertThat(histogram.maxMicros()).isEqualTo(10_000);
+        assertThat(histogram.percentileMicros(0.50)).isCloseTo(5_000, within(625L));
+        assertThat(histogram.percentileMicros(0.95)).isCloseTo(9_500, within(1_200L));
+        assertThat(histogram.percentileMicros(0.99)).isCloseTo(9_900, within(1_200L));
+    }
+
+    @Test
+    void bucketsTest() {
+        for (long micros : new long[]{0, 7, 8, 15, 16, 1000, 123_456_789, Long.MAX_VALUE}) {
+            long middle = LatencyHistogram.bucketMiddle(LatencyHistogram.bucketIndex(micros));
+            assertThat((double) middle).isCloseTo(micros, within(micros * 0.125 + 1));
+        }
+    }
+}
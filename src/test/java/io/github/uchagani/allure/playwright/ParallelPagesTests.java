@@ -0,0 +1,56 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelPagesTests extends TestBase {
+    ExecutorService pool;
+
+    @BeforeEach
+    void createPool() {
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void stepsOnPooledThreadsAreNestedUnderParentTest() {
+        AllureResults results = runTest(() -> Allure.step("parent", () -> {
+            Executor executor = AllurePlaywrightContext.wrap(pool);
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> clickOnNewPage(checkboxSelector), executor);
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> clickOnNewPage(buttonSelector), executor);
+            CompletableFuture.allOf(first, second).join();
+        }));
+
+        TestResult testResult = results.getTestResults().get(0);
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getName).containsExactly("parent");
+        assertThat(testResult.getSteps().get(0).getSteps()).flatExtracting(StepResult::getName)
+                .containsExactlyInAnyOrder("Click " + checkboxSelector, "Click " + buttonSelector);
+    }
+
+    private static void clickOnNewPage(String selector) {
+        // Playwright instances are not thread-safe, so each thread drives its own
+        try (Playwright playwright = Playwright.create()) {
+            Page page = playwright.chromium().launch().newPage();
+            page.setContent(html);
+            page.click(selector);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.uchagani.allure.playwright;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlaywrightMetricsTests {
+
+    @Test
+    void actionsAreExportedAsOpenMetricsTest() throws IOException {
+        String method = "metricsTestAction";
+        PlaywrightMetrics.recordAction(method, 3_000_000);
+        PlaywrightMetrics.recordAction(method, 40_000_000);
+        PlaywrightMetrics.recordActionFailure(method, true);
+
+        StringWriter out = new StringWriter();
+        PlaywrightMetrics.writeOpenMetrics(out);
+
+        assertThat(out.toString())
+                .containsPattern("allure_playwright_action_duration_seconds_bucket\\{method=\"metricsTestAction\",jvm=\"[^\"]+\",le=\"0.001\"} 0\n")
+                .containsPattern("allure_playwright_action_duration_seconds_bucket\\{method=\"metricsTestAction\",jvm=\"[^\"]+\",le=\"0.005\"} 1\n")
+                .containsPattern("allure_playwright_action_duration_seconds_bucket\\{method=\"metricsTestAction\",jvm=\"[^\"]+\",le=\"\\+Inf\"} 2\n")
+                .containsPattern("allure_playwright_action_duration_seconds_count\\{method=\"metricsTestAction\",jvm=\"[^\"]+\"} 2\n")
+                .containsPattern("allure_playwright_action_duration_seconds_sum\\{method=\"metricsTestAction\",jvm=\"[^\"]+\"} 0.043000\n")
+                .containsPattern("allure_playwright_action_failures_total\\{method=\"metricsTestAction\",jvm=\"[^\"]+\"} 1\n")
+                .containsPattern("allure_playwright_action_timeouts_total\\{method=\"metricsTestAction\",jvm=\"[^\"]+\"} 1\n")
+                .contains("allure_playwright_step_name_cache_hits_total{")
+                .endsWith("# EOF\n");
+    }
+
+    @Test
+    void apiResponseAssertionsAreCountedByResultTest() throws IOException {
+        String assertion = "metricsTestAssertion";
+        PlaywrightMetrics.recordApiResponseAssertion(assertion, true);
+        PlaywrightMetrics.recordApiResponseAssertion(assertion, true);
+        PlaywrightMetrics.recordApiResponseAssertion(assertion, false);
+
+        StringWriter out = new StringWriter();
+        PlaywrightMetrics.writeOpenMetrics(out);
+
+        assertThat(out.toString())
+                .containsPattern("allure_playwright_api_response_assertions_total\\{assertion=\"metricsTestAssertion\",jvm=\"[^\"]+\",result=\"passed\"} 2\n")
+                .containsPattern("allure_playwright_api_response_assertions_total\\{assertion=\"metricsTestAssertion\",jvm=\"[^\"]+\",result=\"failed\"} 1\n");
+        PlaywrightMetricsMXBean view = PlaywrightMetrics.view();
+        assertThat(view.getApiResponseAssertionsPassed()).containsEntry(assertion, 2L);
+        assertThat(view.getApiResponseAssertionsFailed()).containsEntry(assertion, 1L);
+    }
+
+    @Test
+    void mxBeanViewTest() {
+        String method = "metricsTestView";
+        PlaywrightMetrics.recordAction(method, 10_000_000);
+        PlaywrightMetrics.recordActionFailure(method, false);
+
+        PlaywrightMetricsMXBean view = PlaywrightMetrics.view();
+
+        assertThat(view.getActionCounts()).containsEntry(method, 1L);
+        assertThat(view.getActionFailures()).containsEntry(method, 1L);
+        assertThat(view.getActionTimeouts()).containsEntry(method, 0L);
+        assertThat(view.getActionP95Millis().get(method)).isBetween(8.75, 11.25);
+    }
+}
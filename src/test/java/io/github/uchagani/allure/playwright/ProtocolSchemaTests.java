@@ -0,0 +1,64 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProtocolSchemaTests {
+    private static final Gson gson = new Gson();
+
+    @Test
+    void expectWithoutExpectedTextTest() {
+        assertThat(render("expect", "{'selector':'#agree','expression':'to.be.checked','isNot':false}"))
+                .isEqualTo("Expect #agree to be checked");
+    }
+
+    @Test
+    void negatedExpectTest() {
+        assertThat(render("expect", "{'selector':'#agree','expression':'to.be.checked','isNot':true}"))
+                .isEqualTo("Expect #agree to not be checked");
+    }
+
+    @Test
+    void expectWithExpressionArgAndExpectedValueTest() {
+        assertThat(render("expect", "{'selector':'a','expression':'to.have.attribute','expressionArg':'href',"
+                + "'expectedText':[{'string':'/home'}],'isNot':false}"))
+                .isEqualTo("Expect a to have attribute href: /home");
+        assertThat(render("expect", "{'selector':'input','expression':'to.have.property','expressionArg':'value',"
+                + "'expectedValue':{'value':{'n':42},'handles':[]},'isNot':false}"))
+                .isEqualTo("Expect input to have property value: 42");
+        assertThat(render("expect", "{'selector':'li','expression':'to.have.count','expectedNumber':3,'isNot':false}"))
+                .isEqualTo("Expect li to have count: 3");
+        assertThat(render("expect", "{'selector':'h1','expression':'to.have.text',"
+                + "'expectedText':[{'regexSource':'^Wel','regexFlags':'i'}],'isNot':false}"))
+                .isEqualTo("Expect h1 to have text: /^Wel/i");
+    }
+
+    @Test
+    void missingFieldsDoNotThrowTest() {
+        assertThat(render("expect", "{}")).isEqualTo("Expect");
+        assertThat(render("dragAndDrop", "{'source':'#from'}")).isEqualTo("Drag #from to ");
+        assertThat(render("setInputFiles", "{'selector':'#upload','files':[]}")).isEqualTo("Set input file(s) to ");
+        assertThat(render("click", "{}")).isEqualTo("Click");
+    }
+
+    @Test
+    void uploadedFileIsReadFromEitherSchemaTest() {
+        assertThat(render("setInputFiles", "{'selector':'#upload','files':[{'name':'a.pdf','buffer':''}]}"))
+                .isEqualTo("Set input file(s) to a.pdf");
+        assertThat(render("setInputFiles", "{'selector':'#upload','payloads':[{'name':'b.pdf','buffer':''}]}"))
+                .isEqualTo("Set input file(s) to b.pdf");
+        assertThat(render("setInputFiles", "{'selector':'#upload','localPaths':['/tmp/files/c.pdf']}"))
+                .isEqualTo("Set input file(s) to c.pdf");
+    }
+
+    private static String render(String method, String params) {
+        return StepNameRenderers.get(method).render(json(params));
+    }
+
+    private static JsonObject json(String json) {
+        return gson.fromJson(json.replace('\'', '"'), JsonObject.class);
+    }
+}
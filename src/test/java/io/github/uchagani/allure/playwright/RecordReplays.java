@@ -0,0 +1,54 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.impl.ReplayPlaywright;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * Records the driver sessions that {@link ReplayTests} plays back into {@code src/test/resources/replay/<version>}. Run
+ * it from the project directory after changing a scenario or adding a Playwright version; it needs the driver but no
+ * browser.
+ */
+public final class RecordReplays {
+    private RecordReplays() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 8123), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().equals("/ok") ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            record("api-requests", ReplayTests::apiRequests);
+            record("refused-request", ReplayTests::refusedRequest);
+            record("failed-assertion", ReplayTests::failedAssertion);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void record(String name, Consumer<Playwright> scenario) {
+        Path file = Paths.get("src/test/resources/replay", ReplayTests.playwrightVersion(), name + ".jsonl");
+        try (ReplayPlaywright recording = ReplayPlaywright.record(file)) {
+            try {
+                scenario.accept(recording.playwright());
+            } catch (RuntimeException | AssertionError e) {
+                // failing scenarios are recorded as well
+            }
+        }
+    }
+}
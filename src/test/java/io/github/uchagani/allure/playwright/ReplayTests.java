@@ -0,0 +1,107 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.APIRequestContext;
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.impl.ReplayPlaywright;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Consumer;
+
+import static com.microsoft.playwright.assertions.PlaywrightAssertions.assertThat;
+import static io.qameta.allure.test.RunUtils.runWithinTestContext;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs scenarios against driver sessions recorded by {@link RecordReplays}, so no driver or browser is needed. A
+ * scenario must make the same calls in the same order as when it was recorded; re-record it after changing it.
+ * Sessions are recorded per Playwright version, and scenarios without a recording for the version in use are skipped.
+ */
+public class ReplayTests {
+    static final String baseUrl = "http://localhost:8123";
+    static final String refusedUrl = "http://localhost:1/";
+
+    static void apiRequests(Playwright playwright) {
+        APIRequestContext request = playwright.request().newContext();
+        APIResponse ok = request.get(baseUrl + "/ok");
+        APIResponse missing = request.get(baseUrl + "/missing");
+        assertThat(ok).isOK();
+        assertThat(missing).not().isOK();
+    }
+
+    static void refusedRequest(Playwright playwright) {
+        playwright.request().newContext().get(refusedUrl);
+    }
+
+    static void failedAssertion(Playwright playwright) {
+        APIResponse missing = playwright.request().newContext().get(baseUrl + "/missing");
+        assertThat(missing).isOK();
+    }
+
+    @Test
+    void replaysPassingSteps() {
+        long passedAssertions = PlaywrightMetrics.view().getApiResponseAssertionsPassed().getOrDefault("isOK", 0L);
+        TestResult testResult = replay("api-requests", ReplayTests::apiRequests);
+
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getName).containsExactly(
+                "GET " + baseUrl + "/ok", "GET " + baseUrl + "/missing",
+                "Expect APIResponse to be OK", "Expect APIResponse to not be OK");
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getStatus)
+                .containsOnly(Status.PASSED);
+        assertThat(PlaywrightMetrics.view().getApiResponseAssertionsPassed().get("isOK"))
+                .isGreaterThanOrEqualTo(passedAssertions + 2);
+    }
+
+    @Test
+    void replaysBrokenStep() {
+        TestResult testResult = replay("refused-request", ReplayTests::refusedRequest);
+
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getName).containsExactly("GET " + refusedUrl);
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getStatus).containsExactly(Status.BROKEN);
+        assertThat(testResult.getSteps()).extracting("statusDetails.trace")
+                .anyMatch(msg -> ((String) msg).contains("PlaywrightException"));
+    }
+
+    @Test
+    void replaysFailedAssertion() {
+        TestResult testResult = replay("failed-assertion", ReplayTests::failedAssertion);
+
+        assertThat(testResult.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getName)
+                .containsExactly("GET " + baseUrl + "/missing", "Expect APIResponse to be OK");
+        assertThat(testResult.getSteps()).flatExtracting(StepResult::getStatus)
+                .containsExactly(Status.PASSED, Status.FAILED);
+    }
+
+    @Test
+    void failsWhenScenarioDiffersFromRecording() {
+        try (ReplayPlaywright replay = ReplayPlaywright.replay(recording("api-requests"))) {
+            APIRequestContext request = replay.playwright().request().newContext();
+            assertThatThrownBy(request::dispose).hasMessageContaining("fetch").hasMessageContaining("dispose");
+        }
+    }
+
+    private static TestResult replay(String name, Consumer<Playwright> scenario) {
+        try (ReplayPlaywright replay = ReplayPlaywright.replay(recording(name))) {
+            AllureResults results = runWithinTestContext(() -> scenario.accept(replay.playwright()),
+                    AllurePlaywrightContext::setLifecycle);
+            return results.getTestResults().get(0);
+        }
+    }
+
+    private static String recording(String name) {
+        String recording = "/replay/" + playwrightVersion() + "/" + name + ".jsonl";
+        assumeTrue(ReplayTests.class.getResource(recording) != null, "No recording " + recording);
+        return recording;
+    }
+
+    static String playwrightVersion() {
+        return Playwright.class.getPackage().getImplementationVersion();
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.Gson;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpilledStepsTests {
+
+    @Test
+    void finishedStepsAreWrittenToDiskAndStreamedIntoTheResultTest(@TempDir Path results) throws IOException {
+        AllureLifecycle lifecycle = new AllureLifecycle(new FileSystemResultsWriter(results));
+        String testUuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(testUuid).setName("soak"));
+        lifecycle.startTestCase(testUuid);
+        SpilledSteps steps = new SpilledSteps(new ArrayList<>());
+        lifecycle.updateTestCase(testUuid, test -> test.setSteps(steps));
+
+        for (int i = 0; i < 1000; i++) {
+            String uuid = UUID.randomUUID().toString();
+            lifecycle.startStep(testUuid, uuid, new StepResult().setName("step " + i).setStatus(Status.PASSED));
+            if (i == 0) {
+                String child = UUID.randomUUID().toString();
+                lifecycle.startStep(uuid, child, new StepResult().setName("nested"));
+                lifecycle.stopStep(child);
+            }
+            lifecycle.stopStep(uuid);
+        }
+        String repeated = UUID.randomUUID().toString();
+        PlaywrightStepResult click = new PlaywrightStepResult("click", params -> "Click #next", null, 0);
+        lifecycle.startStep(testUuid, repeated, click);
+        lifecycle.stopStep(repeated);
+        click.addRepeat(System.currentTimeMillis());
+        lifecycle.startStep(testUuid, UUID.randomUUID().toString(), new StepResult().setName("last"));
+
+        assertThat(steps.spilledCount()).isEqualTo(1001);
+        assertThat(steps).hasSize(1002);
+        assertThat(steps.get(1).getName()).isEqualTo("step 1");
+
+        lifecycle.stopStep();
+        lifecycle.stopTestCase(testUuid);
+        lifecycle.writeTestCase(testUuid);
+
+        TestResult written;
+        try (Stream<Path> files = Files.list(results)) {
+            List<Path> resultFiles = files.filter(file -> file.toString().endsWith("-result.json"))
+                    .collect(Collectors.toList());
+            assertThat(resultFiles).hasSize(1);
+            written = new Gson().fromJson(new String(Files.readAllBytes(resultFiles.get(0)), StandardCharsets.UTF_8),
+                    TestResult.class);
+        }
+        assertThat(written.getSteps()).hasSize(1002);
+        assertThat(written.getSteps().get(0).getSteps()).extracting(StepResult::getName).containsExactly("nested");
+        assertThat(written.getSteps().get(999).getName()).isEqualTo("step 999");
+        assertThat(written.getSteps().get(1000).getName()).isEqualTo("Click #next (x2)");
+        assertThat(written.getSteps().get(1001).getName()).isEqualTo("last");
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.uchagani.allure.playwright;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StepIdGeneratorsTests {
+
+    @Test
+    void sequentialIdsAreUniqueAcrossThreadsTest() throws Exception {
+        StepIdGenerator generator = StepIdGenerators.sequential();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int j = 0; j < 5000; j++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+            Set<String> ids = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertThat(ids).hasSize(8 * 5000);
+            assertThat(UUID.fromString(ids.iterator().next())).isNotNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.uchagani.allure.playwright;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Isolated
+public class StepNameCacheTests {
+
+    @Test
+    void repeatedNameIsRenderedOnceTest() {
+        AtomicInteger rendered = new AtomicInteger();
+        long hits = StepNameCache.hits();
+        long misses = StepNameCache.misses();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(StepNameCache.get("click", "#repeated", null, () -> "Click #repeated" + rendered.incrementAndGet()))
+                    .isEqualTo("Click #repeated1");
+        }
+
+        assertThat(rendered.get()).isEqualTo(1);
+        assertThat(StepNameCache.hits() - hits).isEqualTo(2);
+        assertThat(StepNameCache.misses() - misses).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedNamesAreEvictedTest() {
+        long evictions = StepNameCache.evictions();
+        int names = Config.stepNameCacheSize * 2;
+
+        for (int i = 0; i < names; i++) {
+            String selector = "#element" + i;
+            StepNameCache.get("click", selector, null, () -> "Click " + selector);
+        }
+
+        assertThat(StepNameCache.evictions() - evictions).isGreaterThanOrEqualTo(names - Config.stepNameCacheSize - 16);
+        assertThat(StepNameCache.size()).isLessThanOrEqualTo(Config.stepNameCacheSize + 16);
+    }
+}
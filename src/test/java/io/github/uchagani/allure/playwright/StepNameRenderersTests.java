@@ -0,0 +1,53 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StepNameRenderersTests extends TestBase {
+
+    @Test
+    void customRendererTest_Pass() {
+        String method = "waitForSelector";
+        StepNameRenderers.register(method, StepNameRenderers.locator("Wait for "));
+        try {
+            page.setContent(html);
+            AllureResults results = runTest(() -> page.waitForSelector(buttonSelector));
+            assertStepsWhenPassed(results, "Wait for " + buttonSelector);
+        } finally {
+            StepNameRenderers.unregister(method);
+        }
+    }
+
+    @Test
+    void untrackedMethodTest() {
+        assertThat(StepNameRenderers.get("waitForEventInfo")).isNull();
+        assertThat(StepNameRenderers.get("click")).isNotNull();
+    }
+
+    @Test
+    void onlyRenderedFieldsAreRetainedTest() {
+        JsonObject file = new JsonObject();
+        file.addProperty("name", "invoice.pdf");
+        file.addProperty("mimeType", "application/pdf");
+        file.addProperty("buffer", "JVBERi0xLjQK");
+        JsonArray payloads = new JsonArray();
+        payloads.add(file);
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", "#upload");
+        params.add("payloads", payloads);
+        params.addProperty("timeout", 30000);
+        StepNameRenderer renderer = StepNameRenderers.get("setInputFiles");
+
+        JsonObject retained = StepNameRenderers.retainedParams("setInputFiles", renderer, params);
+
+        assertThat(retained.keySet()).containsExactly("payloads");
+        assertThat(retained.toString()).doesNotContain("JVBERi0xLjQK");
+        assertThat(renderer.render(retained)).isEqualTo(renderer.render(params));
+        StepNameRenderer custom = p -> "Upload";
+        assertThat(StepNameRenderers.retainedParams("setInputFiles", custom, params)).isSameAs(params);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.qameta.allure.model.Parameter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class StepParametersTests {
+
+    @Test
+    void filesAreReportedByNameAndSizeTest() {
+        JsonObject file = new JsonObject();
+        file.addProperty("name", "report.pdf");
+        file.addProperty("mimeType", "application/pdf");
+        file.addProperty("buffer", Base64.getEncoder().encodeToString(new byte[3001]));
+        JsonArray files = new JsonArray();
+        files.add(file);
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", "#upload");
+        params.add("files", files);
+
+        List<Parameter> parameters = StepParameters.extract("setInputFiles", params);
+
+        assertThat(parameters).extracting(Parameter::getName, Parameter::getValue)
+                .containsExactly(tuple("selector", "#upload"), tuple("files", "report.pdf (3001 bytes)"));
+    }
+
+    @Test
+    void longTextIsCappedTest() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append('x');
+        }
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", "#comment");
+        params.addProperty("value", text.toString());
+        params.addProperty("timeout", 30000);
+
+        List<Parameter> parameters = StepParameters.extract("fill", params);
+
+        assertThat(parameters).extracting(Parameter::getName).containsExactly("selector", "value");
+        assertThat(parameters.get(1).getValue()).hasSize(Config.stepParameterMaxLength + 3).endsWith("...");
+    }
+
+    @Test
+    void requestBodyIsReportedBySizeTest() {
+        JsonObject params = new JsonObject();
+        params.addProperty("url", "https://example.com/api");
+        params.addProperty("method", "POST");
+        params.addProperty("postData", Base64.getEncoder().encodeToString(new byte[1024]));
+
+        List<Parameter> parameters = StepParameters.extract("fetch", params);
+
+        assertThat(parameters).extracting(Parameter::getName, Parameter::getValue).containsExactly(
+                tuple("method", "POST"), tuple("url", "https://example.com/api"), tuple("postData", "<1024 bytes>"));
+    }
+
+    @Test
+    void otherMethodsAreRenderedAsBoundedJsonTest() {
+        JsonObject file = new JsonObject();
+        file.addProperty("name", "image.png");
+        file.addProperty("buffer", Base64.getEncoder().encodeToString(new byte[1_000_000]));
+        JsonObject params = new JsonObject();
+        params.addProperty("selector", "#drop");
+        params.add("file", file);
+
+        List<Parameter> parameters = StepParameters.extract("dispatchDrop", params);
+
+        assertThat(parameters).extracting(Parameter::getName, Parameter::getValue).containsExactly(
+                tuple("params", "{\"selector\":\"#drop\",\"file\":{\"name\":\"image.png\",\"buffer\":<1000000 bytes>}}"));
+    }
+
+    @Test
+    void keysAndStringsAreEscapedTest() {
+        JsonObject params = new JsonObject();
+        params.addProperty("say \"hi\"", "C:\\temp\n\"quoted\"");
+
+        List<Parameter> parameters = StepParameters.extract("dispatchDrop", params);
+
+        String json = parameters.get(0).getValue();
+        assertThat(json).isEqualTo("{\"say \\\"hi\\\"\":\"C:\\\\temp\\u000a\\\"quoted\\\"\"}");
+        assertThat(JsonParser.parseString(json)).isEqualTo(params);
+    }
+}
@@ -1,16 +1,14 @@
 package io.github.uchagani.allure.playwright;
 
 import com.microsoft.playwright.Browser;
-import com.microsoft.playwright.BrowserContext;
 import com.microsoft.playwright.Page;
-import com.microsoft.playwright.Playwright;
 import io.qameta.allure.model.Status;
 import io.qameta.allure.model.StepResult;
 import io.qameta.allure.model.TestResult;
 import io.qameta.allure.test.AllureResults;
 import org.apache.commons.io.IOUtils;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -39,23 +37,19 @@ public class TestBase {
         }
     }
 
-    Playwright playwright;
+    @RegisterExtension
+    static final AllurePlaywrightExtension playwrightExtension = new AllurePlaywrightExtension()
+            .contextOptions(new Browser.NewContextOptions().setHasTouch(true));
+
     Page page;
 
     @BeforeEach
-    void getPage() {
-        playwright = Playwright.create();
-        BrowserContext context = playwright.chromium().launch().newContext(new Browser.NewContextOptions().setHasTouch(true));
-        page = context.newPage();
-    }
-
-    @AfterEach
-    void cleanup() {
-        playwright.close();
+    void getPage(@InjectPlaywright Page page) {
+        this.page = page;
     }
 
     AllureResults runTest(Runnable test) {
-        return runWithinTestContext(test, ChannelOwnerAspect::setLifecycle);
+        return runWithinTestContext(test, AllurePlaywrightContext::setLifecycle);
     }
 
     void assertStepsWhenPassed(AllureResults results, String stepName) {
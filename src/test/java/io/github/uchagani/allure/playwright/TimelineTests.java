@@ -0,0 +1,66 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.test.AllureResults;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.qameta.allure.test.RunUtils.runWithinTestContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimelineTests {
+
+    @Test
+    void callsAreAttachedAsTraceEventsTest() {
+        TestResult test = new TestResult().setName("checkout \"guest\"");
+        AllureResults results = runWithinTestContext(() -> {
+            Timeline.testStarted();
+            long start = System.nanoTime();
+            JsonObject gotoParams = new JsonObject();
+            gotoParams.addProperty("url", "https://example.com/");
+            Timeline.record("goto", gotoParams, start, start + 2_500_000, false);
+            JsonObject expectParams = new JsonObject();
+            expectParams.addProperty("selector", "#total");
+            Timeline.record("expect", expectParams, start + 3_000_000, start + 3_000_250, true);
+            Timeline.testStopping(test);
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(test.getAttachments()).extracting(Attachment::getName).containsExactly("Playwright timeline");
+        byte[] trace = results.getAttachments().get(test.getAttachments().get(0).getSource());
+        JsonArray events = new Gson().fromJson(new String(trace, StandardCharsets.UTF_8), JsonObject.class)
+                .getAsJsonArray("traceEvents");
+
+        assertThat(events).hasSize(4);
+        assertThat(field(events.get(0), "ph")).isEqualTo("M");
+        assertThat(field(events.get(1), "name")).isEqualTo("checkout \"guest\"");
+        assertThat(field(events.get(2), "name")).isEqualTo("goto https://example.com/");
+        assertThat(events.get(2).getAsJsonObject().get("dur").getAsDouble()).isEqualTo(2500.0);
+        assertThat(field(events.get(3), "name")).isEqualTo("expect #total");
+        assertThat(events.get(3).getAsJsonObject().get("dur").getAsDouble()).isEqualTo(0.25);
+        assertThat(events.get(3).getAsJsonObject().getAsJsonObject("args").get("status").getAsString())
+                .isEqualTo("failed");
+        assertThat(events.get(3).getAsJsonObject().get("ts").getAsDouble())
+                .isGreaterThan(events.get(2).getAsJsonObject().get("ts").getAsDouble());
+    }
+
+    @Test
+    void callsOutsideOfTestsAreNotRecordedTest() {
+        TestResult test = new TestResult().setName("idle");
+        runWithinTestContext(() -> {
+            Timeline.record("click", new JsonObject(), 0, 1, false);
+            Timeline.testStopping(test);
+        }, AllurePlaywrightContext::setLifecycle);
+
+        assertThat(test.getAttachments()).isEmpty();
+    }
+
+    private static String field(JsonElement event, String name) {
+        return event.getAsJsonObject().get(name).getAsString();
+    }
+}
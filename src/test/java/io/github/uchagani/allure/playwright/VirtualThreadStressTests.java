@@ -0,0 +1,118 @@
+package io.github.uchagani.allure.playwright;
+
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.impl.StubChannelOwner;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs 10,000 concurrent tests against a stub connection, one virtual thread per test where the JVM supports them and
+ * a pool of platform threads elsewhere.
+ */
+public class VirtualThreadStressTests {
+    private static final int tests = 10_000;
+    private static final int stepsPerTest = 5;
+
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger misattributed = new AtomicInteger();
+    private final AllureLifecycle lifecycle = new AllureLifecycle(new VerifyingWriter());
+
+    @Test
+    void stepsAreAttributedAndMemoryStaysFlatTest() throws Exception {
+        AllureLifecycle callerLifecycle = AllurePlaywrightContext.getLifecycle();
+        runTests();
+        long usedAfterFirstRun = usedMemoryAfterGc();
+        runTests();
+        long usedAfterSecondRun = usedMemoryAfterGc();
+
+        assertThat(written.get()).isEqualTo(2 * tests);
+        assertThat(misattributed.get()).isZero();
+        assertThat(usedAfterSecondRun - usedAfterFirstRun).isLessThan(32L * 1024 * 1024);
+        assertThat(AllurePlaywrightContext.getLifecycle()).isSameAs(callerLifecycle);
+    }
+
+    private void runTests() throws Exception {
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(tests);
+            for (int i = 0; i < tests; i++) {
+                String name = "test" + i;
+                futures.add(executor.submit(() -> AllurePlaywrightContext.runWithLifecycle(lifecycle, () -> runTest(name))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void runTest(String name) {
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName(name));
+        lifecycle.startTestCase(uuid);
+        StubChannelOwner channelOwner = StubChannelOwner.create();
+        for (int i = 0; i < stepsPerTest; i++) {
+            JsonObject params = new JsonObject();
+            params.addProperty("selector", "#" + name + "-" + i);
+            channelOwner.send("click", params);
+        }
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(64);
+        }
+    }
+
+    private static long usedMemoryAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private class VerifyingWriter implements AllureResultsWriter {
+        @Override
+        public void write(TestResult testResult) {
+            written.incrementAndGet();
+            List<StepResult> steps = testResult.getSteps();
+            boolean attributed = steps.size() == stepsPerTest;
+            for (int i = 0; attributed && i < stepsPerTest; i++) {
+                attributed = steps.get(i).getName().equals("Click #" + testResult.getName() + "-" + i);
+            }
+            if (!attributed) {
+                misattributed.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void write(TestResultContainer testResultContainer) {
+        }
+
+        @Override
+        public void write(String source, InputStream attachment) {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.uchagani.allure.playwright;
+
+import org.aspectj.bridge.IMessage;
+import org.aspectj.bridge.IMessageHandler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the weaver's debug messages, registered through src/test/resources/META-INF/aop.xml.
+ */
+public class WeaveMessageCounter implements IMessageHandler {
+    static final Set<String> wovenClasses = ConcurrentHashMap.newKeySet();
+    static final AtomicInteger skippedClasses = new AtomicInteger();
+
+    @Override
+    public boolean handleMessage(IMessage message) {
+        String text = message.getMessage();
+        if (text == null) {
+            return true;
+        }
+        if (text.startsWith("weaving '")) {
+            wovenClasses.add(text.substring("weaving '".length(), text.length() - 1));
+        } else if (text.startsWith("not weaving '")) {
+            skippedClasses.incrementAndGet();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isIgnoring(IMessage.Kind kind) {
+        return false;
+    }
+
+    @Override
+    public void dontIgnore(IMessage.Kind kind) {
+    }
+
+    @Override
+    public void ignore(IMessage.Kind kind) {
+    }
+}
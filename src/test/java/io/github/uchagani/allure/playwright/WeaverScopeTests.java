@@ -0,0 +1,23 @@
+package io.github.uchagani.allure.playwright;
+
+import com.microsoft.playwright.Playwright;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class WeaverScopeTests {
+
+    @Test
+    void weavingIsLimitedToPlaywrightImpl() {
+        Playwright.create().close();
+
+        assumeFalse(WeaveMessageCounter.wovenClasses.isEmpty(), "requires load-time weaving");
+        assertThat(WeaveMessageCounter.wovenClasses)
+                .contains("com.microsoft.playwright.impl.ChannelOwner")
+                .allMatch(name -> name.startsWith("com.microsoft.playwright.impl.")
+                        || name.startsWith("io.github.uchagani.allure.playwright."));
+        assertThat(WeaveMessageCounter.skippedClasses).hasPositiveValue();
+        assertThat(WeaveMessageCounter.wovenClasses.size()).isLessThan(WeaveMessageCounter.skippedClasses.get());
+    }
+}